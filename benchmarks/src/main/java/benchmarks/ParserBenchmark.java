@@ -0,0 +1,79 @@
+package benchmarks;
+
+import driver.Job;
+import driver.MappedTraceReader;
+import driver.Trace;
+import driver.WorkloadGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedList;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+
+/***
+ * class: benchmarks.ParserBenchmark
+ * parse a generated jobs file with the original Scanner loop and with the mapped reader
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParserBenchmark {
+    @Param({"100000", "1000000"})
+    public int jobs;
+
+    private File file;                 // generated jobs file
+
+
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        file = File.createTempFile("jobs", ".txt");
+        try (Writer writer = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+            new WorkloadGenerator(42, jobs).write(writer);
+        }
+    }
+
+
+    @TearDown(Level.Trial)
+    public void deleteFile() {
+        file.delete();
+    }
+
+
+    @Benchmark
+    public LinkedList<Job> scanner() throws IOException {
+        LinkedList<Job> list = new LinkedList<>();
+        try (Scanner scanner = new Scanner(file)) {
+            while (scanner.hasNext()) {
+                list.add(new Job(scanner.next(), scanner.nextInt(), scanner.nextInt()));
+            }
+        }
+        return list;
+    }
+
+
+    @Benchmark
+    public Trace mapped() throws IOException {
+        return MappedTraceReader.read(file.getPath());
+    }
+}
@@ -0,0 +1,198 @@
+package benchmarks;
+
+import driver.Job;
+import driver.JobStore;
+import driver.WorkloadGenerator;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import schedulers.FeedbackScheduler;
+import schedulers.FirstComeFirstServeScheduler;
+import schedulers.HighestResponseRatioNextScheduler;
+import schedulers.IndexScheduler;
+import schedulers.RoundRobinScheduler;
+import schedulers.Scheduler;
+import schedulers.ShortestProcessNextScheduler;
+import schedulers.ShortestRemainingTimeScheduler;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+
+/***
+ * class: benchmarks.SchedulerBenchmark
+ * run every scheduler on synthetic traces from 10 to 1M jobs,
+ * with Job objects in a list or with the rows of a JobStore
+ *
+ * throughput reports runs and jobs per second,
+ * average time reports ns per run and ns per scheduling decision,
+ * run with -prof gc for the allocation rate
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SchedulerBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    public int jobs;
+
+    @Param({"FCFS", "RR-1", "RR-4", "RR-16", "SPN", "SRT", "HRRN", "FEEDBACK"})
+    public String policy;
+
+    @Param({"objects", "arrays"})
+    public String layout;
+
+    private String[] names;            // job names of the trace
+    private int[] arrivals;            // arrival times of the trace
+    private int[] durations;           // durations of the trace
+    private JobStore store;            // the trace as columns, for the arrays layout
+    private Scheduler scheduler;       // scheduler for the next invocation, objects layout
+    private IndexScheduler indexScheduler;  // scheduler of the arrays layout
+
+
+    /***
+     * class: Counters
+     * scheduled jobs and scheduling decisions, normalized like the primary result
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long scheduledJobs;
+        public long decisions;
+    }
+
+
+    /***
+     * method: createTrace
+     * create a trace with exponential inter-arrival times and durations
+     * at 90% load, the same trace for every policy
+     */
+    @Setup(Level.Trial)
+    public void createTrace() {
+        WorkloadGenerator generator = new WorkloadGenerator(42, jobs);
+
+        names = new String[jobs];
+        arrivals = new int[jobs];
+        durations = new int[jobs];
+
+        for (int i = 0; i < jobs; i++) {
+            Job job = generator.next();
+            names[i] = job.getName();
+            arrivals[i] = job.getArrivalTime();
+            durations[i] = job.getDuration();
+        }
+
+        if (layout.equals("arrays")) {
+            store = new JobStore();
+            for (int i = 0; i < jobs; i++) {
+                store.add(names[i], arrivals[i], durations[i]);
+            }
+            indexScheduler = IndexScheduler.of(store, policyNumber(), quantum());
+        }
+    }
+
+
+    /***
+     * method: createScheduler
+     * schedulers consume their jobs, so every invocation gets new ones,
+     * an index scheduler resets its store when it runs
+     */
+    @Setup(Level.Invocation)
+    public void createScheduler() {
+        if (indexScheduler != null) {
+            return;
+        }
+
+        LinkedList<Job> list = new LinkedList<>();
+        for (int i = 0; i < jobs; i++) {
+            list.add(new Job(names[i], arrivals[i], durations[i]));
+        }
+
+        switch (policy) {
+            case "FCFS":
+                scheduler = new FirstComeFirstServeScheduler(list); break;
+            case "SPN":
+                scheduler = new ShortestProcessNextScheduler(list); break;
+            case "SRT":
+                scheduler = new ShortestRemainingTimeScheduler(list); break;
+            case "HRRN":
+                scheduler = new HighestResponseRatioNextScheduler(list); break;
+            case "FEEDBACK":
+                scheduler = new FeedbackScheduler(list); break;
+            default:
+                scheduler = new RoundRobinScheduler(list, quantum());
+        }
+
+        // measure the scheduling, not the chart
+        scheduler.setChart(false);
+        scheduler.setOutput(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        }));
+    }
+
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Object throughput(Counters counters) {
+        return schedule(counters);
+    }
+
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Object latency(Counters counters) {
+        return schedule(counters);
+    }
+
+
+    private Object schedule(Counters counters) {
+        counters.scheduledJobs += jobs;
+        if (indexScheduler != null) {
+            indexScheduler.run();
+            counters.decisions += indexScheduler.getDecisions();
+            return indexScheduler;
+        }
+        scheduler.run();
+        counters.decisions += scheduler.getDecisions();
+        return scheduler;
+    }
+
+
+    private int policyNumber() {
+        switch (policy) {
+            case "FCFS":
+                return Scheduler.FIRST_COME_FIRST_SERVE;
+            case "SPN":
+                return Scheduler.SHORTEST_PROCESS_NEXT;
+            case "SRT":
+                return Scheduler.SHORTEST_REMAINING_TIME;
+            case "HRRN":
+                return Scheduler.HIGHEST_RESPONSE_RATIO_NEXT;
+            case "FEEDBACK":
+                return Scheduler.FEEDBACK;
+            default:
+                return Scheduler.ROUND_ROBIN;
+        }
+    }
+
+
+    private int quantum() {
+        return policy.startsWith("RR-") ? Integer.parseInt(policy.substring("RR-".length())) : 1;
+    }
+}
@@ -0,0 +1,672 @@
+package driver;
+
+import schedulers.CompletelyFairScheduler;
+import schedulers.EarliestDeadlineFirstScheduler;
+import schedulers.FeedbackScheduler;
+import schedulers.FirstComeFirstServeScheduler;
+import schedulers.GanttChart;
+import schedulers.HighestResponseRatioNextScheduler;
+import schedulers.IndexPreemptiveScheduler;
+import schedulers.IndexScheduler;
+import schedulers.LeastLaxityFirstScheduler;
+import schedulers.LotteryScheduler;
+import schedulers.Metrics;
+import schedulers.MultiprocessorScheduler;
+import schedulers.RoundRobinScheduler;
+import schedulers.Scheduler;
+import schedulers.ShortestProcessNextScheduler;
+import schedulers.ShortestRemainingTimeScheduler;
+import schedulers.Snapshot;
+import schedulers.StrideScheduler;
+import schedulers.SwitchCost;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+
+/***
+ * class: driver.BatchMode
+ * run policies on traces without any prompt or chart,
+ * and write one line of metrics per trace and policy as CSV or JSON lines
+ *
+ * usage: OS [options] trace...
+ *   --policies FCFS,RR,SPN,SRT,HRRN,FEEDBACK   policies to run, RR-4 gives a quantum to one RR,
+ *                                               CFS, LOTTERY, STRIDE, EDF and LLF can be added
+ *   --quantum 3                                 quantum of RR, LOTTERY and STRIDE without their own
+ *   --feedback 1,2,4                            slice of each FEEDBACK queue, 3 queues of 1 by default
+ *   --boost 100                                 period of the FEEDBACK boost to the highest queue, none by default
+ *   --latency 24 --granularity 3                target latency and minimum granularity of CFS
+ *   --seed 1                                    seed of the LOTTERY draws
+ *   --admission-control                         EDF and LLF run jobs over the utilization bound without deadline
+ *   --switch-cost 1                             time lost on every dispatch of another job, 0 by default
+ *   --cache-penalty 4 --cache-decay 20          extra time of a job whose cache went cold, after the decay time
+ *   --cpus 1,4,16                               numbers of cpus to run RR, SRT and FEEDBACK on, 1 by default
+ *   --balance global|steal|migrate              load balancing of several cpus, steal by default
+ *   --migration-period 10                       time between two migrations of --balance migrate
+ *   --format csv|json                           output format, csv by default
+ *   --output file                               output file, standard output by default
+ *   --objects                                   run Job schedulers instead of JobStore schedulers
+ *   --stream 4096                               read text traces during each run instead of loading them,
+ *                                               on Job schedulers, sorting up to 4096 jobs ahead by arrival
+ *   --checkpoint file --checkpoint-every 100000 save a snapshot of a RR, SRT or FEEDBACK run every 100000 time units
+ *   --resume file                               start RR, SRT or FEEDBACK runs from a snapshot instead of time 0
+ *   --gantt file                                stream the chart of every run to a file, one row per finished job
+ *   --gantt-width 120 --gantt-window 0..100000  draw the window only, cut into 120 columns of its dominant states
+ */
+public class BatchMode {
+    public static final int CSV = 1;
+    public static final int JSON = 2;
+
+    private static final String ALL = "FCFS,RR,SPN,SRT,HRRN,FEEDBACK";
+    private static final String MULTIPROCESSOR = "RR,SRT,FEEDBACK";
+
+    // output of the Job schedulers, which only print their charts and tables
+    static final PrintStream DISCARD = new PrintStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    });
+
+    private final List<String> traces = new ArrayList<>();   // trace files to run
+    private final List<String> policies = new ArrayList<>(); // policy of each run
+    private final List<Integer> quanta = new ArrayList<>();  // quantum of each run
+    private int[] feedbackQuanta = {1, 1, 1};                // slice of each feedback queue
+    private int boost;                                        // feedback boost period, 0 for none
+    private int latency = CompletelyFairScheduler.DEFAULT_LATENCY;
+    private int granularity = CompletelyFairScheduler.DEFAULT_GRANULARITY;
+    private long seed = LotteryScheduler.DEFAULT_SEED;
+    private boolean admissionControl;                         // refuse deadlines over the utilization bound
+    private SwitchCost switchCost = SwitchCost.NONE;          // time lost switching to another job
+    private final List<Integer> cpuCounts = new ArrayList<>(); // numbers of cpus to run each policy on
+    private int balance = MultiprocessorScheduler.WORK_STEALING;
+    private int migrationPeriod = 10;                         // time between two periodic migrations
+    private int format = CSV;
+    private String output;                                    // output file, null for standard output
+    private boolean objects;                                  // use Job schedulers
+    private int lookahead;                                    // jobs read ahead of a streamed trace, 0 to load traces
+    private String checkpoint;                                // snapshot file saved during the run, or null
+    private int checkpointPeriod = 100000;                    // time between two snapshots
+    private String resume;                                    // snapshot file to start from, or null
+    private String gantt;                                     // file of the charts of the runs, or null
+    private int ganttWidth;                                   // columns of the charts, 0 for one per time unit
+    private int ganttFrom;                                    // first time drawn
+    private int ganttTo = Integer.MAX_VALUE;                  // end of the charts, MAX_VALUE for the end of the run
+
+
+    /***
+     * constructor
+     * parse the command line
+     * @param args: options then trace files
+     */
+    public BatchMode(String[] args) {
+        String policyList = null;
+        int quantum = 3;
+        int cost = 0;
+        int penalty = 0;
+        int decay = SwitchCost.DEFAULT_DECAY;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--policies")) {
+                policyList = value(args, ++i, arg);
+            }
+            else if (arg.equals("--quantum")) {
+                quantum = positive(value(args, ++i, arg), arg);
+            }
+            else if (arg.equals("--feedback")) {
+                String[] slices = value(args, ++i, arg).split(",");
+                feedbackQuanta = new int[slices.length];
+                for (int j = 0; j < slices.length; j++)
+                    feedbackQuanta[j] = positive(slices[j].trim(), arg);
+                if (slices.length > FeedbackScheduler.MAX_LEVELS)
+                    throw new IllegalArgumentException(arg + " takes at most " + FeedbackScheduler.MAX_LEVELS + " queues");
+            }
+            else if (arg.equals("--boost")) {
+                boost = positive(value(args, ++i, arg), arg);
+            }
+            else if (arg.equals("--latency")) {
+                latency = positive(value(args, ++i, arg), arg);
+            }
+            else if (arg.equals("--granularity")) {
+                granularity = positive(value(args, ++i, arg), arg);
+            }
+            else if (arg.equals("--seed")) {
+                String number = value(args, ++i, arg);
+                try {
+                    seed = Long.parseLong(number);
+                }
+                catch (NumberFormatException e) {
+                    throw new IllegalArgumentException(arg + " takes a number: " + number);
+                }
+            }
+            else if (arg.equals("--admission-control")) {
+                admissionControl = true;
+            }
+            else if (arg.equals("--switch-cost")) {
+                cost = notNegative(value(args, ++i, arg), arg);
+            }
+            else if (arg.equals("--cache-penalty")) {
+                penalty = notNegative(value(args, ++i, arg), arg);
+            }
+            else if (arg.equals("--cache-decay")) {
+                decay = positive(value(args, ++i, arg), arg);
+            }
+            else if (arg.equals("--cpus")) {
+                for (String count : value(args, ++i, arg).split(","))
+                    cpuCounts.add(positive(count.trim(), arg));
+            }
+            else if (arg.equals("--balance")) {
+                balance = MultiprocessorScheduler.balanceNumber(value(args, ++i, arg).toLowerCase(Locale.ROOT));
+            }
+            else if (arg.equals("--migration-period")) {
+                migrationPeriod = positive(value(args, ++i, arg), arg);
+            }
+            else if (arg.equals("--format")) {
+                String name = value(args, ++i, arg);
+                if (name.equalsIgnoreCase("csv"))
+                    format = CSV;
+                else if (name.equalsIgnoreCase("json") || name.equalsIgnoreCase("jsonl"))
+                    format = JSON;
+                else
+                    throw new IllegalArgumentException("unknown format: " + name);
+            }
+            else if (arg.equals("--output")) {
+                output = value(args, ++i, arg);
+            }
+            else if (arg.equals("--objects")) {
+                objects = true;
+            }
+            else if (arg.equals("--stream")) {
+                lookahead = positive(value(args, ++i, arg), arg);
+            }
+            else if (arg.equals("--checkpoint")) {
+                checkpoint = value(args, ++i, arg);
+            }
+            else if (arg.equals("--checkpoint-every")) {
+                checkpointPeriod = positive(value(args, ++i, arg), arg);
+            }
+            else if (arg.equals("--resume")) {
+                resume = value(args, ++i, arg);
+            }
+            else if (arg.equals("--gantt")) {
+                gantt = value(args, ++i, arg);
+            }
+            else if (arg.equals("--gantt-width")) {
+                ganttWidth = positive(value(args, ++i, arg), arg);
+            }
+            else if (arg.equals("--gantt-window")) {
+                // from..to, or from.. up to the end of the run
+                String window = value(args, ++i, arg);
+                int dots = window.indexOf("..");
+                if (dots < 0)
+                    throw new IllegalArgumentException(arg + " takes from..to: " + window);
+                ganttFrom = notNegative(window.substring(0, dots), arg);
+                String end = window.substring(dots + 2);
+                ganttTo = end.isEmpty() ? Integer.MAX_VALUE : positive(end, arg);
+                if (ganttTo <= ganttFrom)
+                    throw new IllegalArgumentException(arg + " must end after its start: " + window);
+            }
+            else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException("unknown option: " + arg);
+            }
+            else {
+                traces.add(arg);
+            }
+        }
+
+        if (traces.isEmpty())
+            throw new IllegalArgumentException("no trace file given");
+        switchCost = new SwitchCost(cost, penalty, decay);
+
+        // several cpus run the preemptive policies only
+        boolean multiprocessor = false;
+        for (int cpus : cpuCounts)
+            multiprocessor |= cpus > 1;
+        if (cpuCounts.isEmpty())
+            cpuCounts.add(1);
+        if (multiprocessor && (objects || lookahead > 0))
+            throw new IllegalArgumentException("--objects and --stream run on one cpu only");
+        if (policyList == null)
+            policyList = multiprocessor ? MULTIPROCESSOR : ALL;
+
+        for (String policy : policyList.split(",")) {
+            policy = policy.trim().toUpperCase(Locale.ROOT);
+            int dash = policy.indexOf('-');
+            policies.add(dash < 0 ? policy : policy.substring(0, dash));
+            quanta.add(dash < 0 ? quantum : positive(policy.substring(dash + 1), policy));
+            int number = policyNumber(policies.get(policies.size() - 1));
+            if (multiprocessor && number != Scheduler.ROUND_ROBIN && number != Scheduler.SHORTEST_REMAINING_TIME
+                    && number != Scheduler.FEEDBACK)
+                throw new IllegalArgumentException("only RR, SRT and FEEDBACK run on several cpus: " + policy);
+            if ((checkpoint != null || resume != null) && number != Scheduler.ROUND_ROBIN
+                    && number != Scheduler.SHORTEST_REMAINING_TIME && number != Scheduler.FEEDBACK)
+                throw new IllegalArgumentException("only RR, SRT and FEEDBACK runs have snapshots: " + policy);
+        }
+
+        // a snapshot belongs to one trace, and a checkpoint file to one run
+        if (checkpoint != null || resume != null) {
+            if (objects || lookahead > 0 || multiprocessor || traces.size() > 1)
+                throw new IllegalArgumentException("snapshots take one trace, on one cpu, without --objects or --stream");
+            if (checkpoint != null && policies.size() > 1)
+                throw new IllegalArgumentException("--checkpoint takes one policy");
+        }
+
+        // charts are drawn from the timelines of Job objects
+        if (gantt == null && (ganttWidth > 0 || ganttFrom > 0 || ganttTo != Integer.MAX_VALUE))
+            throw new IllegalArgumentException("--gantt-width and --gantt-window need --gantt");
+        if (gantt != null && (multiprocessor || checkpoint != null || resume != null))
+            throw new IllegalArgumentException("--gantt draws runs on one cpu, without snapshots");
+        if (ganttWidth > 0 && ganttTo == Integer.MAX_VALUE)
+            throw new IllegalArgumentException("--gantt-width needs a --gantt-window with an end");
+    }
+
+
+    /***
+     * method: main
+     * run a batch, printing the usage on a bad command line,
+     * and only the error on a bad trace
+     * @param args: options then trace files
+     */
+    public static void main(String[] args) {
+        BatchMode batch;
+        try {
+            batch = new BatchMode(args);
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println("Usage: OS [--policies FCFS,RR-4,SPN,SRT,HRRN,FEEDBACK] [--quantum 3] " +
+                    "[--feedback 1,2,4] [--boost 100] " +
+                    "[--latency 24] [--granularity 3] [--seed 1] [--admission-control] " +
+                    "[--switch-cost 1] [--cache-penalty 4] [--cache-decay 20] " +
+                    "[--cpus 1,4,16] [--balance global|steal|migrate] [--migration-period 10] [--format csv|json] [--output file] [--objects] " +
+                    "[--stream 4096] " +
+                    "[--checkpoint file] [--checkpoint-every 100000] [--resume file] " +
+                    "[--gantt file] [--gantt-width 120] [--gantt-window 0..100000] trace...");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            batch.run();
+        }
+        catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            // a trace that cannot be read or parsed, or a streamed trace out of order
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+
+    /***
+     * method: run
+     * run every policy on every trace, one trace in memory at a time,
+     * or no trace with --stream: every run reads its jobs from the file as it reaches them
+     */
+    public void run() throws IOException {
+        Writer writer = output == null
+                ? new OutputStreamWriter(System.out)
+                : new FileWriter(output);
+
+        try (Writer out = new BufferedWriter(writer, 1 << 16);
+             FileChannel charts = gantt == null ? null : FileChannel.open(Paths.get(gantt),
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (format == CSV)
+                writeHeader(out);
+
+            for (String fileName : traces) {
+                boolean streamed = lookahead > 0;
+                if (streamed && TraceFile.isTraceFile(fileName))
+                    throw new IllegalArgumentException(fileName + ": --stream reads text traces only");
+                Trace trace = streamed ? null : Trace.read(fileName);
+
+                // the JobStore schedulers have no i/o bursts, jobs with i/o run on Job objects
+                boolean io = trace != null && trace.hasAttribute(Trace.BURST) && trace.hasAttribute(Trace.IO);
+                if (io && (cpuCounts.size() > 1 || cpuCounts.get(0) > 1 || checkpoint != null || resume != null))
+                    throw new IllegalArgumentException(fileName + ": jobs with i/o run on one cpu, without snapshots");
+                JobStore store = objects || streamed || io || gantt != null ? null : JobStore.of(trace);
+
+                for (int i = 0; i < policies.size(); i++) {
+                    for (int cpus : cpuCounts) {
+                        String policy = policies.get(i);
+                        int quantum = quanta.get(i);
+                        Metrics metrics;
+                        long decisions;
+                        long migrations = 0;
+                        double[] utilizations;
+
+                        if (store == null || policyNumber(policy) >= Scheduler.COMPLETELY_FAIR) {
+                            // CFS, LOTTERY, STRIDE, EDF and LLF only run on Job objects
+                            try (JobSource jobs = streamed
+                                    ? new LookaheadJobSource(new TextJobSource(fileName), lookahead)
+                                    : trace.jobs()) {
+                                Scheduler scheduler = createScheduler(policy, quantum, jobs);
+                                scheduler.setChart(false);
+                                scheduler.setOutput(DISCARD);
+                                scheduler.setSwitchCost(switchCost);
+                                if (charts != null) {
+                                    GanttChart chart = new GanttChart(charts);
+                                    chart.setTitle(fileName + " " + (quantized(policy) ? policy + "-" + quantum : policy));
+                                    chart.setWindow(ganttFrom, ganttTo);
+                                    chart.setWidth(ganttWidth);
+                                    scheduler.setGanttChart(chart);
+                                }
+                                scheduler.run();
+                                metrics = scheduler.getMetrics();
+                                decisions = scheduler.getDecisions();
+                                utilizations = new double[] {metrics.getUtilization()};
+                            }
+                        }
+                        else if (cpus > 1) {
+                            MultiprocessorScheduler scheduler = policy.equals("FEEDBACK")
+                                    ? new MultiprocessorScheduler(store, feedbackQuanta, boost, cpus, balance)
+                                    : new MultiprocessorScheduler(store, policyNumber(policy), quantum, cpus, balance);
+                            scheduler.setMigrationPeriod(migrationPeriod);
+                            scheduler.setSwitchCost(switchCost);
+                            scheduler.run();
+                            metrics = scheduler.getMetrics();
+                            decisions = scheduler.getDecisions();
+                            migrations = scheduler.getMigrations();
+                            utilizations = new double[cpus];
+                            for (int cpu = 0; cpu < cpus; cpu++)
+                                utilizations[cpu] = scheduler.getUtilization(cpu);
+                        }
+                        else {
+                            IndexScheduler scheduler = policy.equals("FEEDBACK")
+                                    ? new IndexPreemptiveScheduler(store, feedbackQuanta, boost)
+                                    : IndexScheduler.of(store, policyNumber(policy), quantum);
+                            scheduler.setSwitchCost(switchCost);
+                            if (checkpoint != null || resume != null)
+                                replay((IndexPreemptiveScheduler) scheduler);
+                            else
+                                scheduler.run();
+                            metrics = scheduler.getMetrics();
+                            decisions = scheduler.getDecisions();
+                            utilizations = new double[] {metrics.getUtilization()};
+                        }
+
+                        writeRow(out, fileName, policy, quantum, decisions, metrics, migrations, utilizations);
+                    }
+                }
+            }
+        }
+    }
+
+
+    /***
+     * method: replay
+     * run from the snapshot to resume from, or from time 0,
+     * saving a snapshot at every multiple of the checkpoint period and at the end
+     * @param scheduler: a RR, SRT or FEEDBACK scheduler with the options of the batch
+     */
+    private void replay(IndexPreemptiveScheduler scheduler) throws IOException {
+        if (resume != null)
+            Snapshot.restore(scheduler, resume);
+        if (checkpoint == null) {
+            scheduler.runUntil(Integer.MAX_VALUE);
+            return;
+        }
+        while (!scheduler.isDone()) {
+            long time = ((long) scheduler.getFrame() / checkpointPeriod + 1) * checkpointPeriod;
+            scheduler.runUntil((int) Math.min(Integer.MAX_VALUE, time));
+            Snapshot.save(scheduler, checkpoint);
+        }
+    }
+
+
+    /***
+     * method: createScheduler
+     * @param policy: name of a policy
+     * @param quantum: quantum of round robin, lottery and stride
+     * @param jobs: jobs to run, by arrival time
+     * @return a Job scheduler of the policy reading the jobs as they arrive, with the options of the batch
+     */
+    private Scheduler createScheduler(String policy, int quantum, Iterator<Job> jobs) {
+        switch (policyNumber(policy)) {
+            case Scheduler.FIRST_COME_FIRST_SERVE:
+                return new FirstComeFirstServeScheduler(jobs);
+            case Scheduler.ROUND_ROBIN:
+                return new RoundRobinScheduler(jobs, quantum);
+            case Scheduler.SHORTEST_PROCESS_NEXT:
+                return new ShortestProcessNextScheduler(jobs);
+            case Scheduler.SHORTEST_REMAINING_TIME:
+                return new ShortestRemainingTimeScheduler(jobs);
+            case Scheduler.HIGHEST_RESPONSE_RATIO_NEXT:
+                return new HighestResponseRatioNextScheduler(jobs);
+            case Scheduler.COMPLETELY_FAIR:
+                return new CompletelyFairScheduler(jobs, latency, granularity);
+            case Scheduler.LOTTERY:
+                return new LotteryScheduler(jobs, quantum, seed);
+            case Scheduler.STRIDE:
+                return new StrideScheduler(jobs, quantum);
+            case Scheduler.EARLIEST_DEADLINE_FIRST:
+                EarliestDeadlineFirstScheduler earliestDeadline = new EarliestDeadlineFirstScheduler(jobs);
+                earliestDeadline.setAdmissionControl(admissionControl);
+                return earliestDeadline;
+            case Scheduler.LEAST_LAXITY_FIRST:
+                LeastLaxityFirstScheduler leastLaxity = new LeastLaxityFirstScheduler(jobs);
+                leastLaxity.setAdmissionControl(admissionControl);
+                return leastLaxity;
+            default:
+                return new FeedbackScheduler(jobs, feedbackQuanta, boost);
+        }
+    }
+
+
+    /***
+     * method: policyNumber
+     * @param policy: FCFS, RR, SPN, SRT, HRRN, FEEDBACK, CFS, LOTTERY, STRIDE, EDF or LLF
+     * @return the matching constant of Scheduler
+     */
+    static int policyNumber(String policy) {
+        switch (policy) {
+            case "FCFS":
+                return Scheduler.FIRST_COME_FIRST_SERVE;
+            case "RR":
+                return Scheduler.ROUND_ROBIN;
+            case "SPN":
+                return Scheduler.SHORTEST_PROCESS_NEXT;
+            case "SRT":
+                return Scheduler.SHORTEST_REMAINING_TIME;
+            case "HRRN":
+                return Scheduler.HIGHEST_RESPONSE_RATIO_NEXT;
+            case "FEEDBACK":
+                return Scheduler.FEEDBACK;
+            case "CFS":
+                return Scheduler.COMPLETELY_FAIR;
+            case "LOTTERY":
+                return Scheduler.LOTTERY;
+            case "STRIDE":
+                return Scheduler.STRIDE;
+            case "EDF":
+                return Scheduler.EARLIEST_DEADLINE_FIRST;
+            case "LLF":
+                return Scheduler.LEAST_LAXITY_FIRST;
+            default:
+                throw new IllegalArgumentException("unknown policy: " + policy);
+        }
+    }
+
+
+    private void writeHeader(Writer out) throws IOException {
+        StringBuilder line = new StringBuilder("trace,policy,quantum,jobs,decisions,makespan,throughput,utilization");
+        for (int metric = 0; metric < Metrics.COUNT; metric++) {
+            String name = Metrics.getName(metric);
+            for (String statistic : new String[] {"mean", "p50", "p95", "p99", "max"})
+                line.append(',').append(name).append('_').append(statistic);
+        }
+        line.append(",cpus,migrations,cpu_utilization_min,cpu_utilization_max");
+        line.append(",switches,switch_time,switch_fraction");
+        line.append(",deadlines,misses,miss_rate,admission_failures");
+        for (String statistic : new String[] {"mean", "p50", "p95", "p99", "max"})
+            line.append(",tardiness_").append(statistic);
+        line.append(",io_time,io_active,io_fraction,io_overlap");
+        out.write(line.append('\n').toString());
+    }
+
+
+    /***
+     * method: writeRow
+     * write the metrics of one run as a CSV row or a JSON object on one line,
+     * JSON also lists the utilization of every cpu
+     * the deadline columns count the jobs with a deadline, whatever the policy
+     * the i/o columns are 0 for a trace without i/o bursts
+     */
+    private void writeRow(Writer out, String fileName, String policy, int quantum, long decisions,
+                          Metrics metrics, long migrations, double[] utilizations) throws IOException {
+        boolean quantized = quantized(policy);
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        for (double utilization : utilizations) {
+            min = Math.min(min, utilization);
+            max = Math.max(max, utilization);
+        }
+
+        StringBuilder line = new StringBuilder(512);
+        if (format == CSV) {
+            line.append(csv(fileName)).append(',').append(policy)
+                    .append(',').append(quantized ? String.valueOf(quantum) : "")
+                    .append(',').append(metrics.getCount()).append(',').append(decisions)
+                    .append(',').append(metrics.getMakespan())
+                    .append(',').append(number(metrics.getThroughput()))
+                    .append(',').append(number(metrics.getUtilization()));
+            for (int metric = 0; metric < Metrics.COUNT; metric++) {
+                for (double value : statistics(metrics, metric))
+                    line.append(',').append(number(value));
+            }
+            line.append(',').append(utilizations.length).append(',').append(migrations)
+                    .append(',').append(number(min)).append(',').append(number(max));
+            line.append(',').append(metrics.getSwitches()).append(',').append(metrics.getSwitchTime())
+                    .append(',').append(number(metrics.getSwitchFraction()));
+            line.append(',').append(metrics.getDeadlines()).append(',').append(metrics.getMisses())
+                    .append(',').append(number(metrics.getMissRate())).append(',').append(metrics.getAdmissionFailures());
+            for (double value : tardiness(metrics))
+                line.append(',').append(number(value));
+            line.append(',').append(metrics.getIoTime()).append(',').append(metrics.getIoActiveTime())
+                    .append(',').append(number(metrics.getIoFraction())).append(',').append(number(metrics.getOverlap()));
+        }
+        else {
+            line.append("{\"trace\":\"").append(json(fileName)).append("\",\"policy\":\"").append(policy)
+                    .append("\",\"quantum\":").append(quantized ? String.valueOf(quantum) : "null")
+                    .append(",\"jobs\":").append(metrics.getCount())
+                    .append(",\"decisions\":").append(decisions)
+                    .append(",\"makespan\":").append(metrics.getMakespan())
+                    .append(",\"throughput\":").append(number(metrics.getThroughput()))
+                    .append(",\"utilization\":").append(number(metrics.getUtilization()));
+            String[] names = {"mean", "p50", "p95", "p99", "max"};
+            for (int metric = 0; metric < Metrics.COUNT; metric++) {
+                double[] values = statistics(metrics, metric);
+                for (int i = 0; i < values.length; i++) {
+                    line.append(",\"").append(Metrics.getName(metric)).append('_').append(names[i])
+                            .append("\":").append(number(values[i]));
+                }
+            }
+            line.append(",\"cpus\":").append(utilizations.length)
+                    .append(",\"migrations\":").append(migrations)
+                    .append(",\"cpu_utilization_min\":").append(number(min))
+                    .append(",\"cpu_utilization_max\":").append(number(max))
+                    .append(",\"cpu_utilization\":[");
+            for (int cpu = 0; cpu < utilizations.length; cpu++)
+                line.append(cpu == 0 ? "" : ",").append(number(utilizations[cpu]));
+            line.append("],\"switches\":").append(metrics.getSwitches())
+                    .append(",\"switch_time\":").append(metrics.getSwitchTime())
+                    .append(",\"switch_fraction\":").append(number(metrics.getSwitchFraction()))
+                    .append(",\"deadlines\":").append(metrics.getDeadlines())
+                    .append(",\"misses\":").append(metrics.getMisses())
+                    .append(",\"miss_rate\":").append(number(metrics.getMissRate()))
+                    .append(",\"admission_failures\":").append(metrics.getAdmissionFailures());
+            double[] values = tardiness(metrics);
+            for (int i = 0; i < values.length; i++)
+                line.append(",\"tardiness_").append(names[i]).append("\":").append(number(values[i]));
+            line.append(",\"io_time\":").append(metrics.getIoTime())
+                    .append(",\"io_active\":").append(metrics.getIoActiveTime())
+                    .append(",\"io_fraction\":").append(number(metrics.getIoFraction()))
+                    .append(",\"io_overlap\":").append(number(metrics.getOverlap()));
+            line.append('}');
+        }
+        out.write(line.append('\n').toString());
+    }
+
+
+    private static boolean quantized(String policy) {
+        return policy.equals("RR") || policy.equals("LOTTERY") || policy.equals("STRIDE");
+    }
+
+
+    private static double[] statistics(Metrics metrics, int metric) {
+        return new double[] {metrics.getMean(metric), metrics.getQuantile(metric, 0.50),
+                metrics.getQuantile(metric, 0.95), metrics.getQuantile(metric, 0.99), metrics.getMax(metric)};
+    }
+
+
+    private static double[] tardiness(Metrics metrics) {
+        return new double[] {metrics.getTardinessMean(), metrics.getTardinessQuantile(0.50),
+                metrics.getTardinessQuantile(0.95), metrics.getTardinessQuantile(0.99), metrics.getTardinessMax()};
+    }
+
+
+    /*
+     * whole numbers without decimals, others with 4
+     */
+    private static String number(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15)
+            return String.valueOf((long) value);
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+
+    private static String csv(String text) {
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0)
+            return text;
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    private static String json(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length)
+            throw new IllegalArgumentException(option + " needs a value");
+        return args[i];
+    }
+
+    private static int notNegative(String text, String option) {
+        try {
+            int value = Integer.parseInt(text);
+            if (value >= 0)
+                return value;
+        }
+        catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(option + " needs a number, 0 or more: " + text);
+    }
+
+    private static int positive(String text, String option) {
+        try {
+            int value = Integer.parseInt(text);
+            if (value > 0)
+                return value;
+        }
+        catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(option + " needs a positive number: " + text);
+    }
+}
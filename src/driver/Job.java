@@ -1,20 +1,37 @@
 package driver;
 
-import schedulers.Scheduler;
+import java.io.PrintStream;
 
 
 /***
  * class: driver.Job
  * represent each job with name, arrival time, duration,
- * and how to compare 2 jobs
+ * and how long it ran
+ * a job with a burst and an i/o time alternates between cpu bursts and i/o bursts:
+ * after every burst of cpu time but the last it is blocked for the i/o time,
+ * its duration is the whole cpu time
+ * a job may also be a view of a row of a JobStore,
+ * then the time it ran is kept in the store
  */
-public class Job implements Comparable {
+public class Job {
+    public static final int NO_DEADLINE = Integer.MAX_VALUE;
+
     private String name;                 // job name
     private int arrivalTime;             // job arrival time
     private int duration;                // job process duration
+    private int nice;                    // priority of CompletelyFairScheduler, from -20 (highest) to 19
+    private int tickets;                 // share of the lottery and stride schedulers
+    private int deadline;                // time the job must finish by, NO_DEADLINE if none
+    private int burst;                   // cpu time between two i/o bursts, 0 if the job does no i/o
+    private int io;                      // time of each i/o burst
+    private int burstRunTime;            // time the job ran since its last i/o burst
+    private int readyTime;               // time the job arrived or its last i/o burst ended
     private int runTime;                 // times the job ran
-    private StringBuilder runStat;       // display when running and waiting
-    private static int sortMode;         // type of scheduling
+    private int startTime;               // time the job first ran, -1 if it has not
+    private int completionTime;          // time the job finished, -1 if it has not
+    private Timeline timeline;           // intervals of running and waiting
+    private JobStore store;              // store holding the job, null if none
+    private int index;                   // row of the job in the store
 
 
     /***
@@ -28,9 +45,30 @@ public class Job implements Comparable {
         this.name = name;
         this.arrivalTime = arrivalTime;
         this.duration = duration;
+        tickets = Trace.getAttributeDefault(Trace.TICKETS);
+        deadline = NO_DEADLINE;
+        readyTime = arrivalTime;
         runTime = 0;
-        runStat = new StringBuilder();
-        sortMode = Scheduler.FIRST_COME_FIRST_SERVE;
+        startTime = -1;
+        completionTime = -1;
+        timeline = new Timeline();
+    }
+
+    /***
+     * constructor
+     * create a view of a row of a store
+     * @param store: the store
+     * @param index: row of the job
+     */
+    Job(JobStore store, int index) {
+        this(store.getName(index), store.getArrivalTime(index), store.getDuration(index));
+        this.store = store;
+        this.index = index;
+        nice = store.getAttribute(Trace.NICE, index);
+        tickets = store.getAttribute(Trace.TICKETS, index);
+        deadline = store.getAttribute(Trace.DEADLINE, index);
+        burst = store.getAttribute(Trace.BURST, index);
+        io = store.getAttribute(Trace.IO, index);
     }
 
     public String getName() {
@@ -45,27 +83,160 @@ public class Job implements Comparable {
         return duration;
     }
 
-    public static void setSortMode(int mode) {
-        sortMode = mode;
+    public int getNice() {
+        return nice;
     }
 
-    public void print() {
-        System.out.println(runStat.toString());
+    /***
+     * method: setNice
+     * @param nice: priority from -20 (highest) to 19, 0 by default
+     */
+    public void setNice(int nice) {
+        Trace.checkAttribute(Trace.NICE, nice);
+        this.nice = nice;
+    }
+
+    public int getTickets() {
+        return tickets;
+    }
+
+    /***
+     * method: setTickets
+     * @param tickets: share of the cpu relative to other jobs, from 1 to 1000000, 100 by default
+     */
+    public void setTickets(int tickets) {
+        Trace.checkAttribute(Trace.TICKETS, tickets);
+        this.tickets = tickets;
+    }
+
+    public int getDeadline() {
+        return deadline;
+    }
+
+    public boolean hasDeadline() {
+        return deadline != NO_DEADLINE;
+    }
+
+    /***
+     * method: setDeadline
+     * @param deadline: time the job must finish by, NO_DEADLINE by default
+     */
+    public void setDeadline(int deadline) {
+        Trace.checkAttribute(Trace.DEADLINE, deadline);
+        this.deadline = deadline;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    /***
+     * method: setBurst
+     * @param burst: cpu time between two i/o bursts, 0 by default for a job without i/o
+     */
+    public void setBurst(int burst) {
+        Trace.checkAttribute(Trace.BURST, burst);
+        this.burst = burst;
+    }
+
+    public int getIo() {
+        return io;
+    }
+
+    /***
+     * method: setIo
+     * @param io: time of each i/o burst, 0 by default
+     */
+    public void setIo(int io) {
+        Trace.checkAttribute(Trace.IO, io);
+        this.io = io;
+    }
+
+    /***
+     * method: hasIo
+     * @return true if the job blocks for i/o between its cpu bursts
+     */
+    public boolean hasIo() {
+        return burst > 0 && io > 0;
+    }
+
+    /***
+     * method: getIoTime
+     * @return time the job spends in i/o from its arrival to its completion
+     */
+    public int getIoTime() {
+        if (!hasIo() || duration == 0)
+            return 0;
+        return (int) Math.min(Integer.MAX_VALUE, (long) ((duration - 1) / burst) * io);
+    }
+
+    /***
+     * method: getBurstTime
+     * @return cpu time left until the job blocks for i/o or completes
+     */
+    public int getBurstTime() {
+        if (!hasIo())
+            return getRemainingTime();
+        return Math.min(getRemainingTime(), burst - burstRunTime);
+    }
+
+    /***
+     * method: getReadyTime
+     * @return time the job arrived, or the time its last i/o burst ended
+     */
+    public int getReadyTime() {
+        return readyTime;
+    }
+
+    public int getStartTime() {
+        return startTime;
+    }
+
+    public int getCompletionTime() {
+        return completionTime;
+    }
+
+    public int getTurnaroundTime() {
+        return completionTime - arrivalTime;
+    }
+
+    public int getWaitingTime() {
+        return getTurnaroundTime() - duration - getIoTime();
+    }
+
+    public int getResponseTime() {
+        return startTime - arrivalTime;
+    }
+
+    public Timeline getTimeline() {
+        return timeline;
+    }
+
+    public void print(PrintStream out) {
+        StringBuilder sb = new StringBuilder();
+        timeline.render(sb, name);
+        out.println(sb.toString());
     }
 
     public int getRemainingTime() {
+        if (store != null)
+            return store.getRemainingTime(index);
         return this.duration - this.runTime;
     }
 
 
     /***
      * method: runComplete
-     * run the entire job to its completion
+     * run the rest of the job to its completion
      */
     public void runComplete() {
-        for (int time = 0; time < duration; time++) {
-            runStat.append(name);
-        }
+        int remaining = getRemainingTime();
+        if (startTime < 0)
+            startTime = timeline.getEnd();
+        if (store != null)
+            store.run(index, timeline.getEnd(), remaining);
+        timeline.add(remaining, Timeline.RUNNING);
+        runTime += remaining;
     }
 
 
@@ -77,55 +248,53 @@ public class Job implements Comparable {
      */
     public void runSlice(int timeSlice, int wait) {
         // run time
-        for (int t = 0; t < timeSlice; t++) {
-            runStat.append(name);
-        }
+        if (timeSlice > 0 && startTime < 0)
+            startTime = timeline.getEnd();
+        if (store != null && timeSlice > 0)
+            store.run(index, timeline.getEnd(), timeSlice);
+        timeline.add(timeSlice, Timeline.RUNNING);
         runTime += timeSlice;
+        burstRunTime += timeSlice;
 
         // wait time
-        for (int w = 0; w < wait; w++) {
-            runStat.append(" ");
-        }
-    }
-
-
-    /***
-     * method: compareTo
-     * overridden method to sort the list of Jobs
-     * @param o: another job object to compare
-     * @return the integer that represents the higher priority job among the two
-     */
-    @Override
-    public int compareTo(Object o) {
-        Job rJob = (Job) o;
-
-        // first come first serve case
-        if (sortMode == Scheduler.FIRST_COME_FIRST_SERVE) {
-            return Integer.compare(this.arrivalTime, rJob.arrivalTime);
-        }
-        // shortest process next case
-        else if (sortMode == Scheduler.SHORTEST_PROCESS_NEXT) {
-            return Integer.compare(this.duration, rJob.duration);
-        }
-        // highest response ratio next case
-        else if (sortMode == Scheduler.HIGHEST_RESPONSE_RATIO_NEXT) {
-            // calculate ratio of this job
-            int thisWait = Scheduler.getFrame() - this.arrivalTime;
-            double thisRatio = (double) (thisWait + this.duration) / this.duration;
-
-            // calculate ratio of rjob
-            int rWait = Scheduler.getFrame() - rJob.arrivalTime;
-            double rRatio = (double) (rWait + rJob.duration) / rJob.duration;
-
-            // compare
-            return Double.compare(rRatio, thisRatio);
-        }
-        // shortest remaining time case
-        else if (sortMode == Scheduler.SHORTEST_REMAINING_TIME) {
-            return Integer.compare(this.getRemainingTime(), rJob.getRemainingTime());
-        }
-        // feedback and round robin does not need this function
-        else
-            return 1;
+        timeline.add(wait, Timeline.WAITING);
+    }
+
+
+    /***
+     * method: complete
+     * record the end of the timeline as the completion time
+     */
+    public void complete() {
+        completionTime = timeline.getEnd();
+        if (startTime < 0)
+            startTime = completionTime;
+    }
+
+
+    /***
+     * method: block
+     * start an i/o burst at the end of the timeline, once the cpu burst ran out,
+     * the job is ready again when it ends
+     */
+    public void block() {
+        timeline.add(io, Timeline.BLOCKED);
+        burstRunTime = 0;
+        readyTime = timeline.getEnd();
+    }
+
+
+    /***
+     * method: runSliceAt
+     * wait from the end of the last recorded slice until the start time,
+     * then run a job until its time slice expires
+     * @param start: time the slice starts
+     * @param timeSlice: time to run
+     */
+    public void runSliceAt(int start, int timeSlice) {
+        int wait = start - timeline.getEnd();
+        runSlice(0, wait);
+        runSlice(timeSlice, 0);
     }
+
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package driver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+
+
+/***
+ * interface: driver.JobSource
+ * a stream of jobs sorted by arrival time,
+ * read lazily by a scheduler as the simulated time reaches them
+ */
+public interface JobSource extends Iterator<Job>, Closeable {
+
+    /***
+     * method: close
+     * release the resources of the source, such as an open file
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
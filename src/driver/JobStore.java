@@ -0,0 +1,260 @@
+package driver;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+
+/***
+ * class: driver.JobStore
+ * jobs held as parallel primitive columns, one row per job by arrival time,
+ * so schedulers can work on row indices instead of Job objects
+ *
+ * Job objects are only created as views of a row, see job,
+ * and a view running in a Job based scheduler updates its row
+ */
+public class JobStore {
+    // states of a job
+    public static final int NEW = 0;              // not admitted yet
+    public static final int READY = 1;            // waiting in a ready queue
+    public static final int RUNNING = 2;
+    public static final int DONE = 3;
+
+    public static final int NOT_STARTED = -1;     // start and completion of a job that has not run
+
+    private final NameDictionary dictionary;      // distinct job names
+    private int[] nameIds;                        // name of each job in the dictionary
+    private int[] arrivals;                       // arrival time of each job
+    private int[] durations;                      // duration of each job
+    private int[] remaining;                      // time left to run
+    private int[] states;                         // state of each job
+    private int[] starts;                         // time each job first ran
+    private int[] completions;                    // time each job finished
+    private int[][] attributes;                   // optional columns of Trace, null when no job gives one
+    private int size;                             // number of jobs
+
+
+    /***
+     * constructor
+     * create an empty store
+     */
+    public JobStore() {
+        this(new NameDictionary(), 16);
+    }
+
+
+    private JobStore(NameDictionary dictionary, int capacity) {
+        this.dictionary = dictionary;
+        capacity = Math.max(capacity, 1);
+        nameIds = new int[capacity];
+        arrivals = new int[capacity];
+        durations = new int[capacity];
+        remaining = new int[capacity];
+        states = new int[capacity];
+        starts = new int[capacity];
+        completions = new int[capacity];
+        attributes = new int[Trace.ATTRIBUTE_COUNT][];
+    }
+
+
+    /***
+     * method: of
+     * copy a trace into a store, by arrival time then file order
+     * @param trace: the trace
+     * @return the store, sharing the name dictionary of the trace
+     */
+    public static JobStore of(Trace trace) {
+        JobStore store = new JobStore(trace.getDictionary(), trace.size());
+        for (int i = 0; i < trace.size(); i++) {
+            int index = trace.getArrivalOrder(i);
+            store.add(trace.getNameId(index), trace.getArrivalTime(index), trace.getDuration(index));
+            for (int a = 0; a < Trace.ATTRIBUTE_COUNT; a++) {
+                if (trace.hasAttribute(a))
+                    store.setAttribute(a, i, trace.getAttribute(a, index));
+            }
+        }
+        return store;
+    }
+
+
+    /***
+     * method: add
+     * append a job, jobs have to be added by arrival time
+     * @param name: job's name
+     * @param arrivalTime: arrival time, no earlier than the last job added
+     * @param duration: job's duration
+     * @return the row of the job
+     */
+    public int add(String name, int arrivalTime, int duration) {
+        return add(dictionary.id(name), arrivalTime, duration);
+    }
+
+
+    private int add(int nameId, int arrivalTime, int duration) {
+        if (size > 0 && arrivalTime < arrivals[size - 1])
+            throw new IllegalArgumentException("jobs must be added by arrival time: " + dictionary.name(nameId));
+        if (size == arrivals.length)
+            grow();
+
+        nameIds[size] = nameId;
+        arrivals[size] = arrivalTime;
+        durations[size] = duration;
+        remaining[size] = duration;
+        states[size] = NEW;
+        starts[size] = NOT_STARTED;
+        completions[size] = NOT_STARTED;
+        return size++;
+    }
+
+
+    private void grow() {
+        int capacity = size * 2;
+        nameIds = Arrays.copyOf(nameIds, capacity);
+        arrivals = Arrays.copyOf(arrivals, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        remaining = Arrays.copyOf(remaining, capacity);
+        states = Arrays.copyOf(states, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        completions = Arrays.copyOf(completions, capacity);
+        for (int a = 0; a < Trace.ATTRIBUTE_COUNT; a++) {
+            if (attributes[a] != null) {
+                attributes[a] = Arrays.copyOf(attributes[a], capacity);
+                Arrays.fill(attributes[a], size, capacity, Trace.getAttributeDefault(a));
+            }
+        }
+    }
+
+
+    /***
+     * method: reset
+     * bring every job back to its state before any run,
+     * so the same store can be scheduled again
+     */
+    public void reset() {
+        System.arraycopy(durations, 0, remaining, 0, size);
+        Arrays.fill(states, 0, size, NEW);
+        Arrays.fill(starts, 0, size, NOT_STARTED);
+        Arrays.fill(completions, 0, size, NOT_STARTED);
+    }
+
+
+    public int size() {
+        return size;
+    }
+
+    public String getName(int index) {
+        return dictionary.name(nameIds[index]);
+    }
+
+    public int getArrivalTime(int index) {
+        return arrivals[index];
+    }
+
+    public int getDuration(int index) {
+        return durations[index];
+    }
+
+    public int getRemainingTime(int index) {
+        return remaining[index];
+    }
+
+    public int getState(int index) {
+        return states[index];
+    }
+
+    public void setState(int index, int state) {
+        states[index] = state;
+    }
+
+    public int getStartTime(int index) {
+        return starts[index];
+    }
+
+    public int getCompletionTime(int index) {
+        return completions[index];
+    }
+
+    public int getAttribute(int attribute, int index) {
+        return attributes[attribute] == null ? Trace.getAttributeDefault(attribute) : attributes[attribute][index];
+    }
+
+
+    /***
+     * method: setAttribute
+     * set an optional column of a job, see Trace
+     * @param attribute: the column, e.g. Trace.NICE
+     * @param index: row of the job
+     * @param value: the value
+     */
+    public void setAttribute(int attribute, int index, int value) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("no job at row " + index);
+        Trace.checkAttribute(attribute, value);
+        if (attributes[attribute] == null) {
+            if (value == Trace.getAttributeDefault(attribute))
+                return;
+            attributes[attribute] = new int[arrivals.length];
+            Arrays.fill(attributes[attribute], Trace.getAttributeDefault(attribute));
+        }
+        attributes[attribute][index] = value;
+    }
+
+
+    /***
+     * method: run
+     * run a job for a slice, recording its first start and its completion
+     * @param index: row of the job
+     * @param start: time the slice starts
+     * @param slice: time to run
+     */
+    public void run(int index, int start, int slice) {
+        if (starts[index] == NOT_STARTED)
+            starts[index] = start;
+        remaining[index] -= slice;
+        if (remaining[index] <= 0) {
+            states[index] = DONE;
+            completions[index] = start + slice;
+        }
+    }
+
+
+    /***
+     * method: restore
+     * bring a job back to a state saved during a run
+     * @param index: row of the job
+     * @param state: NEW, READY, RUNNING or DONE
+     * @param remainingTime: time left to run, at most the duration
+     * @param start: time the job first ran, or NOT_STARTED
+     * @param completion: time the job finished, or NOT_STARTED
+     */
+    public void restore(int index, int state, int remainingTime, int start, int completion) {
+        if (state < NEW || state > DONE || remainingTime > durations[index])
+            throw new IllegalArgumentException("cannot restore job " + getName(index) + " with state " + state +
+                    " and remaining time " + remainingTime);
+        states[index] = state;
+        remaining[index] = remainingTime;
+        starts[index] = start;
+        completions[index] = completion;
+    }
+
+
+    /***
+     * method: job
+     * @param index: row of a job
+     * @return a new Job viewing the row
+     */
+    public Job job(int index) {
+        return new Job(this, index);
+    }
+
+
+    /***
+     * method: toList
+     * @return a new Job viewing each row, by arrival time
+     */
+    public LinkedList<Job> toList() {
+        LinkedList<Job> jobs = new LinkedList<>();
+        for (int i = 0; i < size; i++)
+            jobs.add(job(i));
+        return jobs;
+    }
+}
@@ -0,0 +1,93 @@
+package driver;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+
+/***
+ * class: driver.LookaheadJobSource
+ * read a bounded number of jobs ahead of a stream and return them by arrival time,
+ * so a trace that is only roughly sorted still reaches the scheduler in order
+ * while memory stays bounded by the size of the buffer
+ */
+public class LookaheadJobSource implements JobSource {
+    private final Iterator<Job> jobs;            // the underlying stream
+    private final PriorityQueue<Entry> buffer;   // jobs read ahead, by arrival time then read order
+    private final int capacity;                  // most jobs read ahead
+    private long read;                           // number of jobs read so far
+    private int lastArrival;                     // arrival time of the last job returned
+
+
+    /*
+     * a buffered job and the order it was read in
+     */
+    private static class Entry {
+        final Job job;
+        final long order;
+
+        Entry(Job job, long order) {
+            this.job = job;
+            this.order = order;
+        }
+    }
+
+
+    /***
+     * constructor
+     * @param jobs: stream of jobs, sorted by arrival time within capacity jobs
+     * @param capacity: most jobs read ahead
+     */
+    public LookaheadJobSource(Iterator<Job> jobs, int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("lookahead must hold at least 1 job: " + capacity);
+        this.jobs = jobs;
+        this.capacity = capacity;
+        this.buffer = new PriorityQueue<>(Math.min(capacity, 1024), (a, b) -> {
+            int compare = Integer.compare(a.job.getArrivalTime(), b.job.getArrivalTime());
+            return compare != 0 ? compare : Long.compare(a.order, b.order);
+        });
+        lastArrival = Integer.MIN_VALUE;
+    }
+
+
+    @Override
+    public boolean hasNext() {
+        fill();
+        return !buffer.isEmpty();
+    }
+
+
+    /***
+     * method: next
+     * @return the earliest job of the buffer
+     * @throws IllegalStateException if the stream is out of order by more than the buffer
+     */
+    @Override
+    public Job next() {
+        fill();
+        if (buffer.isEmpty())
+            throw new NoSuchElementException();
+
+        Job job = buffer.poll().job;
+        if (job.getArrivalTime() < lastArrival)
+            throw new IllegalStateException("job " + job.getName() + " arrives at " + job.getArrivalTime() +
+                    ", before a job already returned at " + lastArrival + "; increase the lookahead");
+        lastArrival = job.getArrivalTime();
+        return job;
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        if (jobs instanceof JobSource)
+            ((JobSource) jobs).close();
+    }
+
+
+    private void fill() {
+        while (buffer.size() < capacity && jobs.hasNext())
+            buffer.add(new Entry(jobs.next(), read++));
+    }
+}
@@ -0,0 +1,356 @@
+package driver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+
+/***
+ * class: driver.MappedTraceReader
+ * read a jobs file by memory mapping it and tokenizing the bytes directly,
+ * without regular expressions or a String per token
+ *
+ * the file is mapped in windows that end on a line break, so files larger
+ * than 2 GB are read too, and each window is copied in bulk to a small array
+ * that is tokenized. job names are dictionary encoded: each distinct
+ * name is decoded once and every job with that name shares the same String
+ */
+public class MappedTraceReader implements JobSource {
+    private static final long WINDOW = 1L << 30;        // most bytes mapped at once
+    private static final int CHUNK = 1 << 20;           // most bytes tokenized at once
+
+    private final FileChannel channel;                  // the jobs file
+    private final long fileSize;                        // size of the file
+    private final long window;                          // bytes mapped at once
+    private MappedByteBuffer buffer;                    // mapped window
+    private long windowEnd;                             // file position after the window
+    private final byte[] bytes;                         // chunk of the window being tokenized
+    private int position;                               // read position in the chunk
+    private int limit;                                  // end of the last whole line in the chunk
+    private int lineNumber;                             // line breaks read so far
+
+    private int nameId;                                 // name of the row read ahead
+    private int arrival;                                // arrival time of the row read ahead
+    private int duration;                               // duration of the row read ahead
+    private final int[] attributes;                     // optional columns of the row read ahead
+    private boolean attributesRead;                     // a row gave an optional column
+    private boolean ready;                              // a row has been read ahead
+
+    private final NameDictionary dictionary;            // distinct job names
+
+
+    /***
+     * constructor
+     * open and map a jobs file
+     * @param fileName: name of the jobs file
+     */
+    public MappedTraceReader(String fileName) throws IOException {
+        this(fileName, WINDOW);
+    }
+
+
+    /***
+     * constructor
+     * @param fileName: name of the jobs file
+     * @param window: most bytes mapped at once, must hold the longest line
+     */
+    MappedTraceReader(String fileName, long window) throws IOException {
+        channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+        fileSize = channel.size();
+        this.window = window;
+        bytes = new byte[(int) Math.min(CHUNK, window)];
+        dictionary = new NameDictionary();
+        attributes = new int[Trace.ATTRIBUTE_COUNT];
+    }
+
+
+    /***
+     * method: read
+     * read a whole jobs file into a trace
+     * @param fileName: name of the jobs file
+     * @return the trace
+     */
+    public static Trace read(String fileName) throws IOException {
+        try (MappedTraceReader reader = new MappedTraceReader(fileName)) {
+            int[] nameIds = new int[16];
+            int[] arrivals = new int[16];
+            int[] durations = new int[16];
+            int[][] attributes = new int[Trace.ATTRIBUTE_COUNT][];
+            int size = 0;
+
+            while (reader.readRow()) {
+                if (size == nameIds.length) {
+                    nameIds = Arrays.copyOf(nameIds, size * 2);
+                    arrivals = Arrays.copyOf(arrivals, size * 2);
+                    durations = Arrays.copyOf(durations, size * 2);
+                }
+                nameIds[size] = reader.nameId;
+                arrivals[size] = reader.arrival;
+                durations[size] = reader.duration;
+                if (reader.attributesRead) {
+                    for (int a = 0; a < Trace.ATTRIBUTE_COUNT; a++)
+                        attributes[a] = Trace.setAttribute(attributes[a], a, size, reader.attributes[a]);
+                }
+                size++;
+            }
+
+            return new Trace(reader.dictionary, nameIds, arrivals, durations, attributes, size);
+        }
+    }
+
+
+    @Override
+    public boolean hasNext() {
+        if (!ready) {
+            try {
+                ready = readRow();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return ready;
+    }
+
+
+    @Override
+    public Job next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        ready = false;
+        Job job = new Job(dictionary.name(nameId), arrival, duration);
+        if (attributesRead) {
+            for (int a = 0; a < Trace.ATTRIBUTE_COUNT; a++)
+                Trace.setAttribute(job, a, attributes[a]);
+        }
+        return job;
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        channel.close();
+    }
+
+
+    /***
+     * method: nextWindow
+     * map the next part of the file, cut after its last line break
+     * @return false at the end of the file
+     */
+    private boolean nextWindow() throws IOException {
+        if (windowEnd == fileSize)
+            return false;
+
+        long start = windowEnd;
+        long length = Math.min(window, fileSize - start);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+
+        int end = (int) length;
+        if (start + length < fileSize) {
+            end = lastLineBreak(buffer, end);
+            if (end == 0)
+                throw new IOException("line " + (lineNumber + 1) + " is longer than " + window + " bytes");
+        }
+
+        buffer.limit(end);
+        windowEnd = start + end;
+        return true;
+    }
+
+
+    /***
+     * method: nextChunk
+     * copy the next lines of the window to the array, mapping the next window if needed
+     * @return false at the end of the file
+     */
+    private boolean nextChunk() throws IOException {
+        if ((buffer == null || !buffer.hasRemaining()) && !nextWindow())
+            return false;
+
+        int start = buffer.position();
+        int length = Math.min(bytes.length, buffer.remaining());
+        buffer.get(bytes, 0, length);
+
+        // cut after the last line break, unless the window ends here
+        if (buffer.hasRemaining()) {
+            int end = 0;
+            for (int i = length - 1; i >= 0; i--) {
+                if (bytes[i] == '\n') {
+                    end = i + 1;
+                    break;
+                }
+            }
+            if (end == 0)
+                throw new IOException("line " + (lineNumber + 1) + " is longer than " + bytes.length + " bytes");
+            length = end;
+            buffer.position(start + end);
+        }
+
+        position = 0;
+        limit = length;
+        return true;
+    }
+
+
+    /*
+     * position after the last line break of a buffer, or 0 if none
+     */
+    private static int lastLineBreak(MappedByteBuffer buffer, int end) {
+        while (end > 0 && buffer.get(end - 1) != '\n')
+            end--;
+        return end;
+    }
+
+
+    /***
+     * method: readRow
+     * read the next non-empty line into nameId, arrival, duration and the optional columns
+     * @return false at the end of the file
+     */
+    private boolean readRow() throws IOException {
+        // skip blank space and empty lines, across windows
+        while (true) {
+            while (position < limit) {
+                byte b = bytes[position];
+                if (b == '\n')
+                    lineNumber++;
+                else if (b != ' ' && b != '\t' && b != '\r')
+                    break;
+                position++;
+            }
+            if (position < limit)
+                break;
+            if (!nextChunk())
+                return false;
+        }
+
+        nameId = readName();
+        arrival = readInt();
+        duration = readInt();
+
+        if (attributesRead) {
+            for (int a = 0; a < Trace.ATTRIBUTE_COUNT; a++)
+                attributes[a] = Trace.getAttributeDefault(a);
+        }
+        skipSpaces();
+        while (position < limit && bytes[position] != '\n') {
+            readAttribute();
+            skipSpaces();
+        }
+        return true;
+    }
+
+
+    /***
+     * method: readAttribute
+     * read an optional column written name=value, see Trace
+     */
+    private void readAttribute() {
+        int start = position;
+        while (position < limit && bytes[position] != '=' && !isSpace(bytes[position]))
+            position++;
+        if (position == limit || bytes[position] != '=')
+            throw new IllegalArgumentException("line " + (lineNumber + 1) +
+                    ": expected name=value after the duration");
+
+        int attribute = Trace.attributeNumber(bytes, start, position - start);
+        if (attribute < 0)
+            throw new IllegalArgumentException("line " + (lineNumber + 1) + ": unknown column " +
+                    new String(bytes, start, position - start, StandardCharsets.UTF_8));
+        position++;
+
+        int value = readInt();
+        try {
+            Trace.checkAttribute(attribute, value);
+        }
+        catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("line " + (lineNumber + 1) + ": " + e.getMessage());
+        }
+        if (!attributesRead) {
+            for (int a = 0; a < Trace.ATTRIBUTE_COUNT; a++)
+                attributes[a] = Trace.getAttributeDefault(a);
+            attributesRead = true;
+        }
+        attributes[attribute] = value;
+    }
+
+
+    /***
+     * method: readName
+     * read a name token and look it up in the dictionary
+     * @return the id of the name
+     */
+    private int readName() {
+        int start = position;
+        int hash = 0;
+        while (position < limit && !isSpace(bytes[position])) {
+            hash = 31 * hash + bytes[position];
+            position++;
+        }
+        return dictionary.id(bytes, start, position - start, hash);
+    }
+
+
+    /***
+     * method: readInt
+     * read a decimal integer token on the current line
+     * @return the integer
+     */
+    private int readInt() {
+        skipSpaces();
+
+        boolean negative = false;
+        if (position < limit && bytes[position] == '-') {
+            negative = true;
+            position++;
+        }
+
+        int start = position;
+        long value = 0;
+        while (position < limit) {
+            int digit = bytes[position] - '0';
+            if (digit < 0 || digit > 9)
+                break;
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE + 1L)
+                throw new IllegalArgumentException("line " + (lineNumber + 1) + ": number out of range");
+            position++;
+        }
+
+        if (position == start || (position < limit && !isSpace(bytes[position])))
+            throw new IllegalArgumentException("line " + (lineNumber + 1) +
+                    ": expected name, arrival time and duration");
+
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("line " + (lineNumber + 1) + ": number out of range");
+        return (int) value;
+    }
+
+
+    /*
+     * skip spaces and tabs, but not line breaks
+     */
+    private void skipSpaces() {
+        while (position < limit) {
+            byte b = bytes[position];
+            if (b != ' ' && b != '\t' && b != '\r')
+                break;
+            position++;
+        }
+    }
+
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+}
@@ -0,0 +1,215 @@
+package driver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+
+/***
+ * class: driver.NameDictionary
+ * distinct job names, each stored once as UTF-8 bytes in a shared array
+ * and identified by an id, the String of a name is only created when asked for
+ * and then shared by every job with that name
+ */
+public class NameDictionary {
+    private byte[] bytes;                // UTF-8 bytes of every name, one after another
+    private int[] offsets;               // start of each name in bytes, and the end of the last
+    private int[] hashes;                // hash of each name
+    private String[] strings;            // decoded names, created on demand
+    private int[] table;                 // open addressing table of id + 1, null until needed
+    private int shift;                   // 32 - log2(table length)
+    private int size;                    // number of names
+
+
+    /***
+     * constructor
+     * create an empty dictionary
+     */
+    public NameDictionary() {
+        bytes = new byte[256];
+        offsets = new int[17];
+        hashes = new int[16];
+        strings = new String[16];
+        table = new int[32];
+        shift = 32 - 5;
+    }
+
+
+    /***
+     * constructor
+     * create a dictionary from the bytes of its names, as written by a trace file,
+     * the names are only hashed if one is looked up
+     * @param bytes: UTF-8 bytes of every name, one after another
+     * @param offsets: start of each name, followed by the end of the last
+     * @param size: number of names
+     */
+    public NameDictionary(byte[] bytes, int[] offsets, int size) {
+        this.bytes = bytes;
+        this.offsets = offsets;
+        this.size = size;
+        strings = new String[size];
+    }
+
+
+    public int size() {
+        return size;
+    }
+
+
+    /***
+     * method: id
+     * find a name, adding it if it is new
+     * @param name: a name
+     * @return the id of the name
+     */
+    public int id(String name) {
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        int id = id(key, 0, key.length, hash(key, 0, key.length));
+        if (strings[id] == null)
+            strings[id] = name;
+        return id;
+    }
+
+
+    /***
+     * method: id
+     * find a name given by its bytes, adding it if it is new
+     * @param source: array holding the name
+     * @param start: start of the name in the array
+     * @param length: length of the name
+     * @param hash: hash of the name, see hash
+     * @return the id of the name
+     */
+    public int id(byte[] source, int start, int length, int hash) {
+        if (table == null)
+            index();
+        for (int slot = slot(hash); ; slot = (slot + 1) & (table.length - 1)) {
+            int id = table[slot] - 1;
+            if (id < 0) {
+                table[slot] = add(source, start, length, hash) + 1;
+                if (size * 2 > table.length)
+                    grow();
+                return size - 1;
+            }
+            if (hashes[id] == hash && same(id, source, start, length))
+                return id;
+        }
+    }
+
+
+    /***
+     * method: name
+     * @param id: id of a name
+     * @return the name, shared by every caller
+     */
+    public String name(int id) {
+        String name = strings[id];
+        if (name == null) {
+            name = new String(bytes, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.UTF_8);
+            strings[id] = name;
+        }
+        return name;
+    }
+
+
+    /***
+     * method: getBytes
+     * @return UTF-8 bytes of every name, one after another, see getOffset
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+
+    /***
+     * method: getOffset
+     * @param id: id of a name, or size for the end of the last name
+     * @return start of the name in getBytes
+     */
+    public int getOffset(int id) {
+        return offsets[id];
+    }
+
+
+    /***
+     * method: hash
+     * String style hash of bytes, computed by readers while they tokenize
+     * @return the hash
+     */
+    public static int hash(byte[] source, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++)
+            hash = 31 * hash + source[i];
+        return hash;
+    }
+
+
+    private int add(byte[] source, int start, int length, int hash) {
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+            strings = Arrays.copyOf(strings, size * 2);
+            offsets = Arrays.copyOf(offsets, size * 2 + 1);
+        }
+        int end = offsets[size];
+        if (end + length > bytes.length)
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, end + length));
+
+        System.arraycopy(source, start, bytes, end, length);
+        offsets[size + 1] = end + length;
+        hashes[size] = hash;
+        return size++;
+    }
+
+
+    private boolean same(int id, byte[] source, int start, int length) {
+        int offset = offsets[id];
+        if (offsets[id + 1] - offset != length)
+            return false;
+        for (int i = 0; i < length; i++) {
+            if (bytes[offset + i] != source[start + i])
+                return false;
+        }
+        return true;
+    }
+
+
+    /*
+     * Fibonacci hashing: the top bits of the product pick the slot
+     */
+    private int slot(int hash) {
+        return (hash * 0x9E3779B9) >>> shift;
+    }
+
+
+    /***
+     * method: index
+     * hash the names of a dictionary read from a trace file
+     */
+    private void index() {
+        hashes = new int[Math.max(16, size)];
+        for (int id = 0; id < size; id++)
+            hashes[id] = hash(bytes, offsets[id], offsets[id + 1]);
+        strings = Arrays.copyOf(strings, hashes.length);
+        offsets = Arrays.copyOf(offsets, hashes.length + 1);
+
+        table = new int[Math.max(32, Integer.highestOneBit(size) * 4)];
+        shift = 32 - Integer.numberOfTrailingZeros(table.length);
+        rehash();
+    }
+
+
+    private void grow() {
+        table = new int[table.length * 2];
+        shift--;
+        rehash();
+    }
+
+
+    private void rehash() {
+        for (int id = 0; id < size; id++) {
+            int slot = slot(hashes[id]);
+            while (table[slot] != 0)
+                slot = (slot + 1) & (table.length - 1);
+            table[slot] = id + 1;
+        }
+    }
+}
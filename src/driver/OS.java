@@ -12,28 +12,51 @@ package driver;
 import schedulers.*;
 import schedulers.FeedbackScheduler;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class OS {
     public static void main(String[] args) {
+        // arguments: run without prompts, see BatchMode and Sweep
+        if (args.length > 0 && args[0].equals("--sweep")) {
+            Sweep.main(args);
+            return;
+        }
+        if (args.length > 0) {
+            BatchMode.main(args);
+            return;
+        }
+
         try {
             String jobsFileName = getJobsFileName();
 
             System.out.println("Mode:\n" +
                     "1. Individual\n" +
-                    "2. All"
+                    "2. All\n" +
+                    "3. All (parallel)"
             );
-            int type = getInt("Your choice: ", 1, 2);
+            int type = getInt("Your choice: ", 1, 3);
 
             if (type == 1) {
                 runIndividualScheduler(jobsFileName);
             }
-            else {
+            else if (type == 2) {
                 runAllSchedulers(jobsFileName);
             }
+            else {
+                runAllSchedulersParallel(jobsFileName);
+            }
         }
         catch (Exception e) {
             System.out.println("Error: cannot find the specified file.");
@@ -41,7 +64,7 @@ public class OS {
     }
 
 
-    private static void runIndividualScheduler(String jobsFileName) throws FileNotFoundException {
+    private static void runIndividualScheduler(String jobsFileName) throws IOException {
         int type = 0;                           // get type of scheduler
         Scheduler scheduler;
 
@@ -52,9 +75,14 @@ public class OS {
                 "3. Shortest process next\n" +
                 "4. Shortest remaining time\n" +
                 "5. Highest response ratio next\n" +
-                "6. Feedback");
-        type = getInt("Your choice: ", 1, 6);
-        LinkedList<Job> jobs = createJobs(jobsFileName);
+                "6. Feedback\n" +
+                "7. Completely fair\n" +
+                "8. Lottery\n" +
+                "9. Stride\n" +
+                "10. Earliest deadline first\n" +
+                "11. Least laxity first");
+        type = getInt("Your choice: ", 1, 11);
+        LinkedList<Job> jobs = Trace.read(jobsFileName).toList();
 
         // set the desired scheduler
         switch (type) {
@@ -77,6 +105,21 @@ public class OS {
             // run feedback scheduler (done)
             case Scheduler.FEEDBACK:
                 scheduler = new FeedbackScheduler(jobs); break;
+            // run completely fair scheduler
+            case Scheduler.COMPLETELY_FAIR:
+                scheduler = new CompletelyFairScheduler(jobs); break;
+            // run lottery scheduler
+            case Scheduler.LOTTERY:
+                scheduler = new LotteryScheduler(jobs, getInt("Enter quantum: ", 1, Integer.MAX_VALUE)); break;
+            // run stride scheduler
+            case Scheduler.STRIDE:
+                scheduler = new StrideScheduler(jobs, getInt("Enter quantum: ", 1, Integer.MAX_VALUE)); break;
+            // run earliest-deadline-first scheduler
+            case Scheduler.EARLIEST_DEADLINE_FIRST:
+                scheduler = new EarliestDeadlineFirstScheduler(jobs); break;
+            // run least-laxity-first scheduler
+            case Scheduler.LEAST_LAXITY_FIRST:
+                scheduler = new LeastLaxityFirstScheduler(jobs); break;
             // safeguard: never execute
             default:
                 scheduler = new FirstComeFirstServeScheduler(jobs);
@@ -87,36 +130,75 @@ public class OS {
     }
 
 
-    private static void runAllSchedulers(String jobsFileName) throws FileNotFoundException {
+    private static void runAllSchedulers(String jobsFileName) throws IOException {
         Scheduler scheduler = null;
-        LinkedList<Job> jobs = createJobs(jobsFileName);
+        Trace trace = Trace.read(jobsFileName);
 
-        scheduler = new FirstComeFirstServeScheduler(jobs);
+        scheduler = new FirstComeFirstServeScheduler(trace.toList());
         scheduler.run();
 
-        jobs = createJobs(jobsFileName);
-        scheduler = new HighestResponseRatioNextScheduler(jobs);
+        scheduler = new HighestResponseRatioNextScheduler(trace.toList());
         scheduler.run();
 
-        jobs = createJobs(jobsFileName);
-        scheduler = new RoundRobinScheduler(jobs, 3);
+        scheduler = new RoundRobinScheduler(trace.toList(), 3);
         scheduler.run();
 
-        jobs = createJobs(jobsFileName);
-        scheduler = new ShortestProcessNextScheduler(jobs);
+        scheduler = new ShortestProcessNextScheduler(trace.toList());
         scheduler.run();
 
-        jobs = createJobs(jobsFileName);
-        scheduler = new ShortestRemainingTimeScheduler(jobs);
+        scheduler = new ShortestRemainingTimeScheduler(trace.toList());
         scheduler.run();
 
-        jobs = createJobs(jobsFileName);
-        scheduler = new FeedbackScheduler(jobs);
+        scheduler = new FeedbackScheduler(trace.toList());
         scheduler.run();
 
     }
 
 
+    /***
+     * method: runAllSchedulersParallel
+     * run all six schedulers on separate threads against the same input,
+     * each one prints to its own buffer, the buffers are printed in order at the end
+     */
+    private static void runAllSchedulersParallel(String jobsFileName) throws IOException {
+        Trace trace = Trace.read(jobsFileName);
+        List<Scheduler> schedulers = new ArrayList<>();
+        schedulers.add(new FirstComeFirstServeScheduler(trace.toList()));
+        schedulers.add(new HighestResponseRatioNextScheduler(trace.toList()));
+        schedulers.add(new RoundRobinScheduler(trace.toList(), 3));
+        schedulers.add(new ShortestProcessNextScheduler(trace.toList()));
+        schedulers.add(new ShortestRemainingTimeScheduler(trace.toList()));
+        schedulers.add(new FeedbackScheduler(trace.toList()));
+
+        ExecutorService pool = Executors.newFixedThreadPool(
+                Math.min(schedulers.size(), Runtime.getRuntime().availableProcessors()));
+        List<Future<ByteArrayOutputStream>> results = new ArrayList<>();
+
+        // start every scheduler with its own output
+        for (Scheduler scheduler : schedulers) {
+            results.add(pool.submit(() -> {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                scheduler.setOutput(new PrintStream(buffer));
+                scheduler.run();
+                return buffer;
+            }));
+        }
+
+        // print the charts in the same order as the sequential mode
+        try {
+            for (Future<ByteArrayOutputStream> result : results) {
+                System.out.print(result.get().toString());
+            }
+        }
+        catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+
     private static String getJobsFileName() throws FileNotFoundException {
         System.out.print("Enter a file name: ");
         String fileName = new Scanner(System.in).nextLine();
@@ -126,29 +208,6 @@ public class OS {
     }
 
 
-    /***
-     * method: createJobs
-     * read data from the file and create new jobs
-     * @return a linked list of jobs
-     */
-    private static LinkedList<Job> createJobs(String fileName) throws FileNotFoundException {
-        LinkedList<Job> jobs = new LinkedList<>();
-
-        Scanner sc = new Scanner(new File(fileName));
-
-        while (sc.hasNext()) {
-            String name = sc.next();
-            int arrivalTime = sc.nextInt();
-            int duration = sc.nextInt();
-
-            jobs.add(new Job(name, arrivalTime, duration));
-        }
-        sc.close();
-
-        return jobs;
-    }
-
-
     /***
      * method: getInt
      * get, validate, and return an integer within a range
@@ -0,0 +1,432 @@
+package driver;
+
+import schedulers.FeedbackScheduler;
+import schedulers.IndexPreemptiveScheduler;
+import schedulers.IndexScheduler;
+import schedulers.Metrics;
+import schedulers.RoundRobinScheduler;
+import schedulers.Scheduler;
+import schedulers.SwitchCost;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/***
+ * class: driver.Sweep
+ * run one policy over a grid of parameters on a fork-join pool,
+ * every setting replays the same parsed trace, then print the settings ranked by a metric
+ *
+ * usage: OS --sweep RR|FEEDBACK [options] trace
+ *   --quanta 1..20         RR: quanta to try, FEEDBACK: slice of the highest queue
+ *   --levels 2..5          FEEDBACK: numbers of queues to try
+ *   --growth fixed,double  FEEDBACK: every queue has the same slice, or twice the slice of the queue above
+ *   --boost 0,50,100       FEEDBACK: periods of the boost to the highest queue, 0 for none, none by default
+ *   --switch-cost 1        time lost on every dispatch of another job, 0 by default
+ *   --cache-penalty 4      extra time of a job whose cache went cold, 0 by default
+ *   --cache-decay 20       time after which a stopped job has a cold cache
+ *   --rank turnaround_mean metric to rank by, lowest first: turnaround, waiting, response or normalized
+ *                          with mean, p50, p95, p99 or max
+ *   --threads n            workers of the pool, the number of cpus by default
+ *   --top n                print the n best settings only
+ *   --objects              run Job schedulers instead of JobStore schedulers
+ */
+public class Sweep {
+    private static final String[] STATISTICS = {"mean", "p50", "p95", "p99", "max"};
+
+    private final Trace trace;                         // jobs shared by every setting
+    private final List<Setting> settings;              // grid of parameters
+    private final boolean objects;                     // use Job schedulers
+    private SwitchCost switchCost = SwitchCost.NONE;   // time lost switching to another job
+
+
+    /***
+     * class: Setting
+     * one point of the grid and its results
+     */
+    static class Setting {
+        final String label;                            // parameters as text
+        final int policy;                              // ROUND_ROBIN or FEEDBACK
+        final int[] quanta;                            // RR quantum, or slice of each feedback queue
+        int boost;                                     // feedback boost period, 0 for none
+        Metrics metrics;                               // results of the run
+        long decisions;                                // jobs selected during the run
+
+        Setting(String label, int policy, int[] quanta) {
+            this.label = label;
+            this.policy = policy;
+            this.quanta = quanta;
+        }
+    }
+
+
+    /***
+     * constructor
+     * @param trace: jobs shared by every setting
+     * @param settings: grid of parameters
+     * @param objects: run Job schedulers instead of JobStore schedulers,
+     *                 always the case for a trace with i/o bursts, which JobStore schedulers do not have
+     */
+    Sweep(Trace trace, List<Setting> settings, boolean objects) {
+        this.trace = trace;
+        this.settings = settings;
+        this.objects = objects || (trace.hasAttribute(Trace.BURST) && trace.hasAttribute(Trace.IO));
+    }
+
+
+    void setSwitchCost(SwitchCost switchCost) {
+        this.switchCost = switchCost;
+    }
+
+
+    /***
+     * method: roundRobin
+     * @param quanta: quanta to try
+     * @return one setting per quantum
+     */
+    static List<Setting> roundRobin(int[] quanta) {
+        List<Setting> settings = new ArrayList<>();
+        for (int quantum : quanta)
+            settings.add(new Setting("RR quantum=" + quantum, Scheduler.ROUND_ROBIN, new int[] {quantum}));
+        return settings;
+    }
+
+
+    /***
+     * method: feedback
+     * @param levels: numbers of queues to try
+     * @param quanta: slices of the highest queue to try
+     * @param fixed: try every queue with the same slice
+     * @param doubling: try each queue with twice the slice of the queue above
+     * @param boosts: boost periods to try, 0 for none
+     * @return one setting per combination
+     */
+    static List<Setting> feedback(int[] levels, int[] quanta, boolean fixed, boolean doubling, int[] boosts) {
+        List<Setting> settings = new ArrayList<>();
+        for (int count : levels) {
+            for (int quantum : quanta) {
+                for (int growth = 1; growth <= 2; growth++) {
+                    if ((growth == 1 && !fixed) || (growth == 2 && (!doubling || count == 1)))
+                        continue;
+
+                    int[] slices = FeedbackScheduler.doublingQuanta(count, quantum);
+                    if (growth == 1)
+                        Arrays.fill(slices, quantum);
+                    for (int boost : boosts) {
+                        Setting setting = new Setting("FEEDBACK quanta=" + Arrays.toString(slices).replace(" ", "")
+                                + (boost > 0 ? " boost=" + boost : ""), Scheduler.FEEDBACK, slices);
+                        setting.boost = boost;
+                        settings.add(setting);
+                    }
+                }
+            }
+        }
+        return settings;
+    }
+
+
+    /***
+     * method: run
+     * run every setting on a pool
+     * @param threads: workers of the pool
+     */
+    void run(int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new SweepTask(0, settings.size()));
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+
+    /***
+     * class: SweepTask
+     * run a range of settings, split in halves until one setting is left
+     */
+    private class SweepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;                        // first setting of the range
+        private final int to;                          // end of the range
+
+        SweepTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                runSetting(settings.get(from));
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SweepTask(from, middle), new SweepTask(middle, to));
+        }
+    }
+
+
+    /***
+     * method: runSetting
+     * run one setting on its own jobs, built from the shared trace
+     * @param setting: the setting
+     */
+    private void runSetting(Setting setting) {
+        if (objects) {
+            Scheduler scheduler = setting.policy == Scheduler.ROUND_ROBIN
+                    ? new RoundRobinScheduler(trace.toList(), setting.quanta[0])
+                    : new FeedbackScheduler(trace.toList(), setting.quanta, setting.boost);
+            scheduler.setChart(false);
+            scheduler.setOutput(BatchMode.DISCARD);
+            scheduler.setSwitchCost(switchCost);
+            scheduler.run();
+            setting.metrics = scheduler.getMetrics();
+            setting.decisions = scheduler.getDecisions();
+        }
+        else {
+            JobStore store = JobStore.of(trace);
+            IndexScheduler scheduler = setting.policy == Scheduler.ROUND_ROBIN
+                    ? new IndexPreemptiveScheduler(store, Scheduler.ROUND_ROBIN, setting.quanta[0])
+                    : new IndexPreemptiveScheduler(store, setting.quanta, setting.boost);
+            scheduler.setSwitchCost(switchCost);
+            scheduler.run();
+            setting.metrics = scheduler.getMetrics();
+            setting.decisions = scheduler.getDecisions();
+        }
+    }
+
+
+    /***
+     * method: print
+     * print the settings ranked by a metric, lowest first
+     * @param out: where to print
+     * @param metric: metric to rank by
+     * @param statistic: index in STATISTICS
+     * @param top: most settings to print
+     */
+    void print(PrintStream out, int metric, int statistic, int top) {
+        List<Setting> ranked = new ArrayList<>(settings);
+        ranked.sort(Comparator.comparingDouble(s -> statistic(s.metrics, metric, statistic)));
+
+        int width = "setting".length();
+        for (Setting setting : ranked)
+            width = Math.max(width, setting.label.length());
+
+        out.printf("%d jobs, %d settings, ranked by %s_%s%n", trace.size(), settings.size(),
+                Metrics.getName(metric), STATISTICS[statistic]);
+        out.printf("%4s  %-" + width + "s %12s %12s %12s %12s %12s %12s %12s %12s %12s %12s%n", "rank", "setting",
+                "ranked", "turn_mean", "turn_p99", "wait_mean", "wait_p99", "resp_mean", "resp_p99", "decisions",
+                "throughput", "switching");
+        for (int i = 0; i < Math.min(top, ranked.size()); i++) {
+            Setting setting = ranked.get(i);
+            Metrics m = setting.metrics;
+            out.printf(Locale.ROOT, "%4d  %-" + width + "s %12.2f %12.2f %12.0f %12.2f %12.0f %12.2f %12.0f %12d %12.4f %11.1f%%%n",
+                    i + 1, setting.label, statistic(m, metric, statistic),
+                    m.getMean(Metrics.TURNAROUND), m.getQuantile(Metrics.TURNAROUND, 0.99),
+                    m.getMean(Metrics.WAITING), m.getQuantile(Metrics.WAITING, 0.99),
+                    m.getMean(Metrics.RESPONSE), m.getQuantile(Metrics.RESPONSE, 0.99), setting.decisions,
+                    m.getThroughput(), 100 * m.getSwitchFraction());
+        }
+    }
+
+
+    private static double statistic(Metrics metrics, int metric, int statistic) {
+        switch (statistic) {
+            case 0:
+                return metrics.getMean(metric);
+            case 1:
+                return metrics.getQuantile(metric, 0.50);
+            case 2:
+                return metrics.getQuantile(metric, 0.95);
+            case 3:
+                return metrics.getQuantile(metric, 0.99);
+            default:
+                return metrics.getMax(metric);
+        }
+    }
+
+
+    /***
+     * method: main
+     * parse the command line, run the sweep and print the ranking
+     * @param args: --sweep RR|FEEDBACK, options, then the trace file
+     */
+    public static void main(String[] args) {
+        try {
+            String policy = null;
+            String fileName = null;
+            int[] quanta = null;
+            int[] levels = range("2..5");
+            int[] boosts = {0};
+            String growth = "fixed,double";
+            String rank = "turnaround_mean";
+            int threads = Runtime.getRuntime().availableProcessors();
+            int top = Integer.MAX_VALUE;
+            boolean objects = false;
+            int cost = 0;
+            int penalty = 0;
+            int decay = SwitchCost.DEFAULT_DECAY;
+
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--sweep"))
+                    policy = value(args, ++i, arg).toUpperCase(Locale.ROOT);
+                else if (arg.equals("--quanta"))
+                    quanta = range(value(args, ++i, arg));
+                else if (arg.equals("--levels"))
+                    levels = range(value(args, ++i, arg));
+                else if (arg.equals("--boost"))
+                    boosts = range(value(args, ++i, arg), 0);
+                else if (arg.equals("--growth"))
+                    growth = value(args, ++i, arg).toLowerCase(Locale.ROOT);
+                else if (arg.equals("--rank"))
+                    rank = value(args, ++i, arg).toLowerCase(Locale.ROOT);
+                else if (arg.equals("--threads"))
+                    threads = range(value(args, ++i, arg))[0];
+                else if (arg.equals("--top"))
+                    top = range(value(args, ++i, arg))[0];
+                else if (arg.equals("--switch-cost"))
+                    cost = number(value(args, ++i, arg), arg);
+                else if (arg.equals("--cache-penalty"))
+                    penalty = number(value(args, ++i, arg), arg);
+                else if (arg.equals("--cache-decay"))
+                    decay = range(value(args, ++i, arg))[0];
+                else if (arg.equals("--objects"))
+                    objects = true;
+                else if (arg.startsWith("--"))
+                    throw new IllegalArgumentException("unknown option: " + arg);
+                else if (fileName == null)
+                    fileName = arg;
+                else
+                    throw new IllegalArgumentException("only one trace file can be swept: " + arg);
+            }
+
+            if (fileName == null)
+                throw new IllegalArgumentException("no trace file given");
+
+            List<Setting> settings;
+            if ("RR".equals(policy)) {
+                settings = roundRobin(quanta == null ? range("1..20") : quanta);
+            }
+            else if ("FEEDBACK".equals(policy)) {
+                List<String> growths = Arrays.asList(growth.split(","));
+                for (String name : growths) {
+                    if (!name.equals("fixed") && !name.equals("double"))
+                        throw new IllegalArgumentException("unknown growth: " + name);
+                }
+                settings = feedback(levels, quanta == null ? range("1") : quanta,
+                        growths.contains("fixed"), growths.contains("double"), boosts);
+            }
+            else {
+                throw new IllegalArgumentException("only RR and FEEDBACK can be swept: " + policy);
+            }
+            if (settings.isEmpty())
+                throw new IllegalArgumentException("the grid is empty");
+
+            // ranking metric, e.g. waiting_p99
+            int underscore = rank.indexOf('_');
+            String metricName = underscore < 0 ? rank : rank.substring(0, underscore);
+            String statisticName = underscore < 0 ? "mean" : rank.substring(underscore + 1);
+            int metric = -1;
+            for (int m = 0; m < Metrics.COUNT; m++) {
+                if (Metrics.getName(m).equals(metricName))
+                    metric = m;
+            }
+            int statistic = Arrays.asList(STATISTICS).indexOf(statisticName);
+            if (metric < 0 || statistic < 0)
+                throw new IllegalArgumentException("unknown metric: " + rank);
+
+            long start = System.nanoTime();
+            Sweep sweep = new Sweep(Trace.read(fileName), settings, objects);
+            sweep.setSwitchCost(new SwitchCost(cost, penalty, decay));
+            sweep.run(threads);
+
+            PrintStream out = new PrintStream(new BufferedOutputStream(System.out, 1 << 16), false);
+            sweep.print(out, metric, statistic, top);
+            out.printf(Locale.ROOT, "swept in %.2f s on %d threads%n", (System.nanoTime() - start) / 1e9, threads);
+            out.flush();
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println("Usage: OS --sweep RR|FEEDBACK [--quanta 1..20] [--levels 2..5] " +
+                    "[--growth fixed,double] [--boost 0,50,100] [--switch-cost 1] [--cache-penalty 4] [--cache-decay 20] [--rank turnaround_mean] [--threads n] [--top n] [--objects] trace");
+            System.exit(2);
+        }
+        catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+
+    /***
+     * method: range
+     * parse positive numbers given as a list of values and ranges, e.g. 1..4,8,16
+     * @param text: the list
+     * @return the numbers
+     */
+    static int[] range(String text) {
+        return range(text, 1);
+    }
+
+
+    /***
+     * method: range
+     * parse numbers from a minimum given as a list of values and ranges, e.g. 0,50..100
+     * @param text: the list
+     * @param minimum: smallest number allowed
+     * @return the numbers
+     */
+    static int[] range(String text, int minimum) {
+        List<Integer> numbers = new ArrayList<>();
+        try {
+            for (String part : text.split(",")) {
+                int dots = part.indexOf("..");
+                int low = Integer.parseInt(part.substring(0, dots < 0 ? part.length() : dots).trim());
+                int high = dots < 0 ? low : Integer.parseInt(part.substring(dots + 2).trim());
+                if (low < minimum || high < low)
+                    throw new IllegalArgumentException("bad range: " + part);
+                for (long n = low; n <= high; n++)
+                    numbers.add((int) n);
+            }
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("not a number: " + text);
+        }
+
+        int[] values = new int[numbers.size()];
+        for (int i = 0; i < values.length; i++)
+            values[i] = numbers.get(i);
+        return values;
+    }
+
+
+    private static int number(String text, String option) {
+        try {
+            int value = Integer.parseInt(text.trim());
+            if (value >= 0)
+                return value;
+        }
+        catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(option + " needs a number, 0 or more: " + text);
+    }
+
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length)
+            throw new IllegalArgumentException(option + " needs a value");
+        return args[i];
+    }
+}
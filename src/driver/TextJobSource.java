@@ -0,0 +1,143 @@
+package driver;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+
+
+/***
+ * class: driver.TextJobSource
+ * read jobs from a jobs file one line at a time,
+ * each line is: name, arrival time, duration separated by whitespace,
+ * then the optional name=value columns of Trace, e.g. "A 0 3 nice=-5 burst=2 io=4"
+ */
+public class TextJobSource implements JobSource {
+    private final BufferedReader reader;     // the jobs file
+    private Job next;                        // next job to return, null at the end
+    private int lineNumber;                  // line of the next job
+
+
+    /***
+     * constructor
+     * open a jobs file
+     * @param fileName: name of the jobs file
+     */
+    public TextJobSource(String fileName) throws IOException {
+        this(new FileReader(fileName));
+    }
+
+
+    public TextJobSource(Reader reader) {
+        this.reader = new BufferedReader(reader, 1 << 16);
+        advance();
+    }
+
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+
+    @Override
+    public Job next() {
+        if (next == null)
+            throw new NoSuchElementException();
+        Job job = next;
+        advance();
+        return job;
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+
+    /***
+     * method: advance
+     * read and parse the next non-empty line
+     */
+    private void advance() {
+        try {
+            next = null;
+            String line;
+            while (next == null && (line = reader.readLine()) != null) {
+                lineNumber++;
+                next = parse(line);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    /***
+     * method: parse
+     * split a line into its columns without regular expressions
+     * @param line: a line of the jobs file
+     * @return the job, or null if the line is empty
+     */
+    private Job parse(String line) {
+        String[] tokens = new String[3];
+        int count = 0;
+        int index = 0;
+        Job job = null;
+
+        while (index < line.length()) {
+            // skip whitespace
+            while (index < line.length() && Character.isWhitespace(line.charAt(index)))
+                index++;
+            if (index == line.length())
+                break;
+
+            // read a token
+            int start = index;
+            while (index < line.length() && !Character.isWhitespace(line.charAt(index)))
+                index++;
+            if (job != null) {
+                attribute(job, line.substring(start, index));
+                continue;
+            }
+            tokens[count++] = line.substring(start, index);
+            if (count == tokens.length)
+                job = new Job(tokens[0], Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2]));
+        }
+
+        if (count == 0)
+            return null;
+        if (job == null)
+            throw new IllegalArgumentException("line " + lineNumber + ": expected name, arrival time and duration");
+        return job;
+    }
+
+
+    /***
+     * method: attribute
+     * set an optional column of a job
+     * @param job: the job of the line
+     * @param token: name=value after the duration
+     */
+    private void attribute(Job job, String token) {
+        int equals = token.indexOf('=');
+        if (equals < 0)
+            throw new IllegalArgumentException("line " + lineNumber + ": expected name=value after the duration");
+
+        int attribute = Trace.attributeNumber(token.substring(0, equals));
+        if (attribute < 0)
+            throw new IllegalArgumentException("line " + lineNumber + ": unknown column " + token.substring(0, equals));
+        try {
+            int value = Integer.parseInt(token.substring(equals + 1));
+            Trace.checkAttribute(attribute, value);
+            Trace.setAttribute(job, attribute, value);
+        }
+        catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("line " + lineNumber + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package driver;
+
+import java.util.Arrays;
+
+
+/***
+ * class: driver.Timeline
+ * run-length record of a job's states over time,
+ * each interval [start, end) is stored only when the state changes
+ */
+public class Timeline {
+    public static final int WAITING = 0;
+    public static final int RUNNING = 1;
+    public static final int BLOCKED = 2;                 // waiting for an i/o burst to end
+
+    private int[] starts;                // start time of each interval
+    private int[] ends;                  // end time of each interval
+    private byte[] states;               // state of each interval
+    private int size;                    // number of intervals
+
+
+    /***
+     * constructor
+     * create an empty timeline starting at time 0
+     */
+    public Timeline() {
+        starts = new int[2];
+        ends = new int[2];
+        states = new byte[2];
+        size = 0;
+    }
+
+
+    public int size() {
+        return size;
+    }
+
+    public int getStart(int index) {
+        return starts[index];
+    }
+
+    public int getEnd(int index) {
+        return ends[index];
+    }
+
+    public int getState(int index) {
+        return states[index];
+    }
+
+
+    /***
+     * method: getEnd
+     * @return the time the timeline has been recorded up to
+     */
+    public int getEnd() {
+        return size == 0 ? 0 : ends[size - 1];
+    }
+
+
+    /***
+     * method: find
+     * binary search the interval going on at a time
+     * @param time: a time
+     * @return the first interval ending after the time, or size() if none
+     */
+    public int find(int time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] <= time)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+
+    /***
+     * method: add
+     * record a state from the end of the timeline for some time,
+     * merging it into the last interval if the state did not change
+     * @param length: how long the state lasts
+     * @param state: WAITING, RUNNING or BLOCKED
+     */
+    public void add(int length, int state) {
+        if (length <= 0) {
+            return;
+        }
+
+        int start = getEnd();
+
+        // same state: extend the last interval
+        if (size > 0 && states[size - 1] == state) {
+            ends[size - 1] = start + length;
+            return;
+        }
+
+        // state changed: open a new interval
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+            states = Arrays.copyOf(states, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = start + length;
+        states[size] = (byte) state;
+        size++;
+    }
+
+
+    /***
+     * method: render
+     * draw the timeline as text, one symbol per time unit
+     * @param sb: where to draw
+     * @param symbol: text drawn while running, a dot is drawn while blocked
+     */
+    public void render(StringBuilder sb, String symbol) {
+        for (int i = 0; i < size; i++) {
+            String text = (states[i] == RUNNING) ? symbol : (states[i] == BLOCKED) ? "." : " ";
+            for (int t = starts[i]; t < ends[i]; t++) {
+                sb.append(text);
+            }
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package driver;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+
+
+/***
+ * class: driver.Trace
+ * a parsed jobs file held in primitive arrays,
+ * read once and replayed as new jobs for as many schedulers as needed
+ *
+ * besides name, arrival time and duration, a job may give optional columns
+ * written name=value after its duration, e.g. "A 0 3 nice=-5 tickets=200 deadline=10 burst=2 io=4",
+ * a column is only held when at least one job gives it
+ */
+public class Trace {
+    // optional columns
+    public static final int NICE = 0;                                // priority of CompletelyFairScheduler
+    public static final int TICKETS = 1;                             // share of the lottery and stride schedulers
+    public static final int DEADLINE = 2;                            // time the job must finish by
+    public static final int BURST = 3;                               // cpu time between two i/o bursts, 0 for none
+    public static final int IO = 4;                                  // time of each i/o burst
+    public static final int ATTRIBUTE_COUNT = 5;                     // number of optional columns
+    private static final String[] ATTRIBUTE_NAMES = {"nice", "tickets", "deadline", "burst", "io"};
+    private static final int[] ATTRIBUTE_DEFAULTS = {0, 100, Job.NO_DEADLINE, 0, 0}; // value of a job without the column
+    private static final int[] ATTRIBUTE_MINIMUMS = {-20, 1, 0, 0, 0};
+    private static final int[] ATTRIBUTE_MAXIMUMS = {19, 1000000, Job.NO_DEADLINE, Integer.MAX_VALUE, Integer.MAX_VALUE};
+
+    private NameDictionary dictionary;   // distinct job names
+    private int[] nameIds;               // name of each job in the dictionary, in file order
+    private int[] arrivals;              // arrival times, in file order
+    private int[] durations;             // durations, in file order
+    private int[][] attributes;          // optional columns, in file order, null when no job gives one
+    private int[] byArrival;             // job indices sorted by arrival time, then file order
+    private int size;                    // number of jobs
+
+
+    /***
+     * constructor
+     * create a trace from columns
+     * @param dictionary: distinct job names
+     * @param nameIds: index of each job name in the dictionary
+     * @param arrivals: arrival times
+     * @param durations: durations
+     * @param size: number of jobs, the columns may be longer
+     */
+    public Trace(NameDictionary dictionary, int[] nameIds, int[] arrivals, int[] durations, int size) {
+        this(dictionary, nameIds, arrivals, durations, new int[ATTRIBUTE_COUNT][], size);
+    }
+
+
+    /***
+     * constructor
+     * create a trace from columns, with optional columns
+     * @param attributes: optional column of each attribute, e.g. attributes[NICE], null when absent
+     */
+    public Trace(NameDictionary dictionary, int[] nameIds, int[] arrivals, int[] durations, int[][] attributes,
+                 int size) {
+        this.dictionary = dictionary;
+        this.nameIds = nameIds;
+        this.arrivals = arrivals;
+        this.durations = durations;
+        this.attributes = Arrays.copyOf(attributes, ATTRIBUTE_COUNT);
+        this.size = size;
+
+        // rows after the last value of a column hold the default
+        for (int a = 0; a < ATTRIBUTE_COUNT; a++) {
+            if (this.attributes[a] != null && this.attributes[a].length < size)
+                this.attributes[a] = setAttribute(this.attributes[a], a, size - 1, ATTRIBUTE_DEFAULTS[a]);
+        }
+        sortByArrival();
+    }
+
+
+    /***
+     * method: read
+     * read every job of a stream into a trace
+     * @param jobs: stream of jobs
+     * @return the trace
+     */
+    public static Trace read(Iterator<Job> jobs) {
+        NameDictionary dictionary = new NameDictionary();
+        int[] nameIds = new int[16];
+        int[] arrivals = new int[16];
+        int[] durations = new int[16];
+        int[][] attributes = new int[ATTRIBUTE_COUNT][];
+        int size = 0;
+
+        while (jobs.hasNext()) {
+            Job job = jobs.next();
+            if (size == nameIds.length) {
+                nameIds = Arrays.copyOf(nameIds, size * 2);
+                arrivals = Arrays.copyOf(arrivals, size * 2);
+                durations = Arrays.copyOf(durations, size * 2);
+            }
+            nameIds[size] = dictionary.id(job.getName());
+            arrivals[size] = job.getArrivalTime();
+            durations[size] = job.getDuration();
+            for (int a = 0; a < ATTRIBUTE_COUNT; a++)
+                attributes[a] = setAttribute(attributes[a], a, size, getAttribute(job, a));
+            size++;
+        }
+
+        return new Trace(dictionary, nameIds, arrivals, durations, attributes, size);
+    }
+
+
+    /***
+     * method: setAttribute
+     * set a value of an optional column, creating the column for its first value other than the default
+     * @param column: the column, or null if none yet
+     * @param attribute: the attribute of the column
+     * @param index: row of the value
+     * @param value: the value
+     * @return the column, grown to hold the row, or null while every value is the default
+     */
+    static int[] setAttribute(int[] column, int attribute, int index, int value) {
+        if (column == null) {
+            if (value == ATTRIBUTE_DEFAULTS[attribute])
+                return null;
+            column = new int[Math.max(16, index + 1)];
+            Arrays.fill(column, ATTRIBUTE_DEFAULTS[attribute]);
+        }
+        else if (index >= column.length) {
+            int length = column.length;
+            column = Arrays.copyOf(column, Math.max(index + 1, length * 2));
+            Arrays.fill(column, length, column.length, ATTRIBUTE_DEFAULTS[attribute]);
+        }
+        column[index] = value;
+        return column;
+    }
+
+
+    /***
+     * method: attributeNumber
+     * @param bytes: ASCII name of an optional column
+     * @param start: first byte of the name
+     * @param length: length of the name
+     * @return the attribute, or -1 if the name is unknown
+     */
+    static int attributeNumber(byte[] bytes, int start, int length) {
+        for (int attribute = 0; attribute < ATTRIBUTE_COUNT; attribute++) {
+            String name = ATTRIBUTE_NAMES[attribute];
+            if (name.length() != length)
+                continue;
+            int i = 0;
+            while (i < length && bytes[start + i] == name.charAt(i))
+                i++;
+            if (i == length)
+                return attribute;
+        }
+        return -1;
+    }
+
+
+    /***
+     * method: attributeNumber
+     * @param name: name of an optional column
+     * @return the attribute, or -1 if the name is unknown
+     */
+    static int attributeNumber(String name) {
+        for (int attribute = 0; attribute < ATTRIBUTE_COUNT; attribute++) {
+            if (ATTRIBUTE_NAMES[attribute].equals(name))
+                return attribute;
+        }
+        return -1;
+    }
+
+
+    /***
+     * method: checkAttribute
+     * @param attribute: an optional column
+     * @param value: a value of the column
+     * @throws IllegalArgumentException if the value is out of the range of the column
+     */
+    public static void checkAttribute(int attribute, int value) {
+        if (value < ATTRIBUTE_MINIMUMS[attribute] || value > ATTRIBUTE_MAXIMUMS[attribute])
+            throw new IllegalArgumentException(ATTRIBUTE_NAMES[attribute] + " must be from " +
+                    ATTRIBUTE_MINIMUMS[attribute] + " to " + ATTRIBUTE_MAXIMUMS[attribute] + ": " + value);
+    }
+
+
+    public static String getAttributeName(int attribute) {
+        return ATTRIBUTE_NAMES[attribute];
+    }
+
+    public static int getAttributeDefault(int attribute) {
+        return ATTRIBUTE_DEFAULTS[attribute];
+    }
+
+
+    /*
+     * the optional columns of a job
+     */
+    private static int getAttribute(Job job, int attribute) {
+        switch (attribute) {
+            case NICE:
+                return job.getNice();
+            case TICKETS:
+                return job.getTickets();
+            case DEADLINE:
+                return job.getDeadline();
+            case BURST:
+                return job.getBurst();
+            case IO:
+                return job.getIo();
+            default:
+                throw new IllegalArgumentException("unknown column: " + attribute);
+        }
+    }
+
+    static void setAttribute(Job job, int attribute, int value) {
+        switch (attribute) {
+            case NICE:
+                job.setNice(value);
+                break;
+            case TICKETS:
+                job.setTickets(value);
+                break;
+            case DEADLINE:
+                job.setDeadline(value);
+                break;
+            case BURST:
+                job.setBurst(value);
+                break;
+            case IO:
+                job.setIo(value);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown column: " + attribute);
+        }
+    }
+
+
+    /*
+     * a job with the optional columns of a row
+     */
+    private static Job setAttributes(Job job, int[][] attributes, int index) {
+        for (int a = 0; a < ATTRIBUTE_COUNT; a++) {
+            if (attributes[a] != null)
+                setAttribute(job, a, attributes[a][index]);
+        }
+        return job;
+    }
+
+
+    /***
+     * method: read
+     * read a text jobs file or a binary trace into a trace
+     * @param fileName: name of the jobs file
+     * @return the trace
+     */
+    public static Trace read(String fileName) throws IOException {
+        if (TraceFile.isTraceFile(fileName))
+            return TraceFile.read(fileName);
+        return MappedTraceReader.read(fileName);
+    }
+
+
+    public int size() {
+        return size;
+    }
+
+    public String getName(int index) {
+        return dictionary.name(nameIds[index]);
+    }
+
+    int getNameId(int index) {
+        return nameIds[index];
+    }
+
+    NameDictionary getDictionary() {
+        return dictionary;
+    }
+
+    int getArrivalOrder(int position) {
+        return byArrival[position];
+    }
+
+    public int getArrivalTime(int index) {
+        return arrivals[index];
+    }
+
+    public int getDuration(int index) {
+        return durations[index];
+    }
+
+    public boolean hasAttribute(int attribute) {
+        return attributes[attribute] != null;
+    }
+
+    int[][] getAttributes() {
+        return attributes;
+    }
+
+    public int getAttribute(int attribute, int index) {
+        return attributes[attribute] == null ? ATTRIBUTE_DEFAULTS[attribute] : attributes[attribute][index];
+    }
+
+
+    /***
+     * method: toList
+     * @return new jobs in file order
+     */
+    public LinkedList<Job> toList() {
+        LinkedList<Job> jobs = new LinkedList<>();
+        for (int i = 0; i < size; i++)
+            jobs.add(setAttributes(new Job(getName(i), arrivals[i], durations[i]), attributes, i));
+        return jobs;
+    }
+
+
+    /***
+     * method: jobs
+     * @return a stream of new jobs by arrival time, created as they are read
+     */
+    public JobSource jobs() {
+        return new JobSource() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Job next() {
+                if (next == size)
+                    throw new NoSuchElementException();
+                int index = byArrival[next++];
+                return setAttributes(new Job(getName(index), arrivals[index], durations[index]), attributes, index);
+            }
+        };
+    }
+
+
+    /*
+     * sort (arrival time, file position) pairs packed into longs,
+     * skipped when the file is already sorted
+     */
+    private void sortByArrival() {
+        byArrival = new int[size];
+        boolean sorted = true;
+        for (int i = 0; i < size; i++) {
+            byArrival[i] = i;
+            if (i > 0 && arrivals[i] < arrivals[i - 1])
+                sorted = false;
+        }
+        if (sorted)
+            return;
+
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++)
+            keys[i] = ((long) arrivals[i] << 32) | i;
+        Arrays.sort(keys);
+
+        for (int i = 0; i < size; i++)
+            byArrival[i] = (int) keys[i];
+    }
+}
@@ -0,0 +1,221 @@
+package driver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+
+/***
+ * class: driver.TraceFile
+ * binary columnar jobs file, loaded straight into the primitive arrays of a trace
+ *
+ * layout, little endian:
+ *   header     magic, version, number of jobs, number of names, bytes of the names,
+ *              bit mask of the optional columns of Trace
+ *   offsets    start of each name in the name bytes, followed by the end of the last
+ *   name ids   name of each job, in file order
+ *   arrivals   arrival time of each job
+ *   durations  duration of each job
+ *   optional   one column per bit of the mask, by attribute number
+ *   names      UTF-8 bytes of every name, one after another
+ * every int column starts on a multiple of 4 bytes, so it is copied in bulk
+ * version 1 files have no mask and no optional columns
+ */
+public class TraceFile {
+    public static final int MAGIC = 0x534A4F54;          // "TOJS" read as little endian bytes
+    public static final int VERSION = 2;
+    private static final int HEADER = 6 * Integer.BYTES;
+    private static final int HEADER_1 = 5 * Integer.BYTES; // header of version 1
+    private static final long WINDOW = 1L << 30;         // most bytes mapped at once
+
+
+    /***
+     * method: isTraceFile
+     * @param fileName: name of a jobs file
+     * @return true if the file starts with the magic number of a binary trace
+     */
+    public static boolean isTraceFile(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+            }
+            return !header.hasRemaining() && header.getInt(0) == MAGIC;
+        }
+    }
+
+
+    /***
+     * method: read
+     * map a binary trace and copy its columns into a trace
+     * @param fileName: name of the binary trace
+     * @return the trace
+     */
+    public static Trace read(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_1)
+                throw new IOException(fileName + ": not a trace file");
+
+            IntBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(HEADER, channel.size()))
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            if (header.get(0) != MAGIC)
+                throw new IOException(fileName + ": not a trace file");
+            int version = header.get(1);
+            if (version != 1 && version != VERSION)
+                throw new IOException(fileName + ": unsupported trace version " + version);
+            if (version == VERSION && channel.size() < HEADER)
+                throw new IOException(fileName + ": truncated or corrupt trace file");
+
+            int size = header.get(2);
+            int nameCount = header.get(3);
+            int nameBytes = header.get(4);
+            int mask = version == 1 ? 0 : header.get(5);
+            long headerSize = version == 1 ? HEADER_1 : HEADER;
+            long expected = headerSize + 4L * (nameCount + 1) + 4L * (3 + Integer.bitCount(mask)) * size + nameBytes;
+            if (size < 0 || nameCount < 0 || nameBytes < 0 || (mask >>> Trace.ATTRIBUTE_COUNT) != 0
+                    || channel.size() != expected)
+                throw new IOException(fileName + ": truncated or corrupt trace file");
+
+            long position = headerSize;
+            int[] offsets = new int[nameCount + 1];
+            position = readInts(channel, position, offsets);
+            int[] nameIds = new int[size];
+            position = readInts(channel, position, nameIds);
+            int[] arrivals = new int[size];
+            position = readInts(channel, position, arrivals);
+            int[] durations = new int[size];
+            position = readInts(channel, position, durations);
+            int[][] attributes = new int[Trace.ATTRIBUTE_COUNT][];
+            for (int a = 0; a < Trace.ATTRIBUTE_COUNT; a++) {
+                if ((mask & (1 << a)) != 0) {
+                    attributes[a] = new int[size];
+                    position = readInts(channel, position, attributes[a]);
+                }
+            }
+            byte[] bytes = new byte[nameBytes];
+            channel.map(FileChannel.MapMode.READ_ONLY, position, nameBytes).get(bytes);
+
+            // a bad id or offset would only fail later, when a job is replayed
+            for (int i = 0; i < nameCount; i++) {
+                if (offsets[i] < 0 || offsets[i] > offsets[i + 1] || offsets[i + 1] > nameBytes)
+                    throw new IOException(fileName + ": corrupt name offsets");
+            }
+            for (int i = 0; i < size; i++) {
+                if (nameIds[i] < 0 || nameIds[i] >= nameCount)
+                    throw new IOException(fileName + ": corrupt name id of job " + i);
+            }
+            for (int a = 0; a < Trace.ATTRIBUTE_COUNT; a++) {
+                for (int i = 0; attributes[a] != null && i < size; i++) {
+                    try {
+                        Trace.checkAttribute(a, attributes[a][i]);
+                    }
+                    catch (IllegalArgumentException e) {
+                        throw new IOException(fileName + ": job " + i + ": " + e.getMessage());
+                    }
+                }
+            }
+
+            return new Trace(new NameDictionary(bytes, offsets, nameCount), nameIds, arrivals, durations,
+                    attributes, size);
+        }
+    }
+
+
+    /***
+     * method: write
+     * write a trace as a binary trace
+     * @param trace: the trace
+     * @param fileName: name of the binary trace
+     */
+    public static void write(Trace trace, String fileName) throws IOException {
+        NameDictionary dictionary = trace.getDictionary();
+        int size = trace.size();
+        int nameCount = dictionary.size();
+        int mask = 0;
+        for (int a = 0; a < Trace.ATTRIBUTE_COUNT; a++) {
+            if (trace.hasAttribute(a))
+                mask |= 1 << a;
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(nameCount).putInt(dictionary.getOffset(nameCount))
+                    .putInt(mask);
+
+            for (int i = 0; i <= nameCount; i++)
+                putInt(channel, buffer, dictionary.getOffset(i));
+            for (int i = 0; i < size; i++)
+                putInt(channel, buffer, trace.getNameId(i));
+            for (int i = 0; i < size; i++)
+                putInt(channel, buffer, trace.getArrivalTime(i));
+            for (int i = 0; i < size; i++)
+                putInt(channel, buffer, trace.getDuration(i));
+            for (int a = 0; a < Trace.ATTRIBUTE_COUNT; a++) {
+                for (int i = 0; trace.hasAttribute(a) && i < size; i++)
+                    putInt(channel, buffer, trace.getAttribute(a, i));
+            }
+            flush(channel, buffer);
+
+            channel.write(ByteBuffer.wrap(dictionary.getBytes(), 0, dictionary.getOffset(nameCount)));
+        }
+    }
+
+
+    /***
+     * method: readInts
+     * copy an int column from the file, mapping at most a window at a time
+     * @param channel: the file
+     * @param position: start of the column in the file
+     * @param column: array to fill
+     * @return position after the column
+     */
+    private static long readInts(FileChannel channel, long position, int[] column) throws IOException {
+        int perWindow = (int) (WINDOW / Integer.BYTES);
+        for (int start = 0; start < column.length; start += perWindow) {
+            int count = Math.min(perWindow, column.length - start);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * count);
+            buffer.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(column, start, count);
+            position += 4L * count;
+        }
+        return position;
+    }
+
+
+    private static void putInt(FileChannel channel, ByteBuffer buffer, int value) throws IOException {
+        if (buffer.remaining() < Integer.BYTES)
+            flush(channel, buffer);
+        buffer.putInt(value);
+    }
+
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+
+    /***
+     * method: main
+     * convert a text jobs file to a binary trace
+     * usage: TraceFile jobs.txt jobs.trace
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: TraceFile textFile traceFile");
+            return;
+        }
+
+        long start = System.nanoTime();
+        Trace trace = MappedTraceReader.read(args[0]);
+        write(trace, args[1]);
+        System.out.printf("%d jobs, %d names written in %.0f ms%n", trace.size(),
+                trace.getDictionary().size(), (System.nanoTime() - start) / 1e6);
+    }
+}
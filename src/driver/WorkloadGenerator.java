@@ -0,0 +1,208 @@
+package driver;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+
+/***
+ * class: driver.WorkloadGenerator
+ * generate a reproducible trace of jobs from a seed, one job at a time,
+ * by arrival time, so it can be streamed into a scheduler or to a file
+ * without holding the whole trace in memory
+ *
+ * the arrival rate is chosen so that the cpu is busy for the given load,
+ * i.e. load = arrival rate * mean service time
+ */
+public class WorkloadGenerator implements JobSource {
+    // arrival processes
+    public static final int POISSON = 1;          // exponential inter-arrival times
+    public static final int BURSTY = 2;           // bursts of jobs arriving at the same time
+
+    // service time distributions
+    public static final int EXPONENTIAL = 1;
+    public static final int PARETO = 2;           // heavy tailed
+    public static final int FIXED = 3;
+
+    private final Random random;                  // source of all random numbers
+    private final int count;                      // number of jobs to generate
+    private int generated;                        // number of jobs generated so far
+    private double clock;                         // arrival time of the last job
+    private int burstLeft;                        // jobs left in the current burst
+
+    private int arrivalProcess = POISSON;
+    private int serviceDistribution = EXPONENTIAL;
+    private double meanServiceTime = 10;
+    private double load = 0.9;
+    private double paretoShape = 1.5;
+    private double meanBurstSize = 10;
+
+
+    /***
+     * constructor
+     * create a generator of Poisson arrivals and exponential service times at 90% load
+     * @param seed: seed of the random numbers, the same seed gives the same trace
+     * @param count: number of jobs to generate
+     */
+    public WorkloadGenerator(long seed, int count) {
+        this.random = new Random(seed);
+        this.count = count;
+    }
+
+
+    public WorkloadGenerator setArrivalProcess(int arrivalProcess) {
+        this.arrivalProcess = arrivalProcess;
+        return this;
+    }
+
+    public WorkloadGenerator setServiceDistribution(int serviceDistribution) {
+        this.serviceDistribution = serviceDistribution;
+        return this;
+    }
+
+    public WorkloadGenerator setMeanServiceTime(double meanServiceTime) {
+        this.meanServiceTime = meanServiceTime;
+        return this;
+    }
+
+    public WorkloadGenerator setLoad(double load) {
+        this.load = load;
+        return this;
+    }
+
+    /***
+     * method: setParetoShape
+     * @param paretoShape: tail index of the Pareto service times, must be greater than 1,
+     *                   the closer to 1 the heavier the tail
+     */
+    public WorkloadGenerator setParetoShape(double paretoShape) {
+        if (paretoShape <= 1)
+            throw new IllegalArgumentException("Pareto shape must be greater than 1: " + paretoShape);
+        this.paretoShape = paretoShape;
+        return this;
+    }
+
+    public WorkloadGenerator setMeanBurstSize(double meanBurstSize) {
+        this.meanBurstSize = meanBurstSize;
+        return this;
+    }
+
+
+    @Override
+    public boolean hasNext() {
+        return generated < count;
+    }
+
+
+    /***
+     * method: next
+     * generate the next job, named J1, J2, ...
+     * @return a job arriving no earlier than the previous one
+     */
+    @Override
+    public Job next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        clock += nextGap();
+        generated++;
+        return new Job("J" + generated, (int) clock, nextServiceTime());
+    }
+
+
+    /***
+     * method: nextGap
+     * time between the previous arrival and the next one
+     * @return the gap
+     */
+    private double nextGap() {
+        double meanGap = meanServiceTime / load;
+
+        if (arrivalProcess == BURSTY) {
+            // still in a burst: arrive with the previous job
+            if (burstLeft > 0) {
+                burstLeft--;
+                return 0;
+            }
+
+            // new burst of geometric size, spaced to keep the same load
+            burstLeft = (int) (Math.log(1 - random.nextDouble()) / Math.log(1 - 1 / meanBurstSize));
+            return exponential(meanGap * meanBurstSize);
+        }
+
+        return exponential(meanGap);
+    }
+
+
+    /***
+     * method: nextServiceTime
+     * @return a duration of at least 1
+     */
+    private int nextServiceTime() {
+        double time;
+
+        if (serviceDistribution == PARETO) {
+            // scale chosen so the mean is meanServiceTime
+            double scale = meanServiceTime * (paretoShape - 1) / paretoShape;
+            time = scale / Math.pow(1 - random.nextDouble(), 1 / paretoShape);
+        }
+        else if (serviceDistribution == FIXED) {
+            time = meanServiceTime;
+        }
+        else {
+            time = exponential(meanServiceTime);
+        }
+
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, Math.round(time)));
+    }
+
+
+    private double exponential(double mean) {
+        return -Math.log(1 - random.nextDouble()) * mean;
+    }
+
+
+    /***
+     * method: write
+     * write the remaining jobs to a jobs file, one job per line
+     * @param writer: where to write
+     */
+    public void write(Writer writer) throws IOException {
+        while (hasNext()) {
+            Job job = next();
+            writer.write(job.getName() + "\t" + job.getArrivalTime() + "\t" + job.getDuration() + "\n");
+        }
+        writer.flush();
+    }
+
+
+    /***
+     * method: main
+     * write a generated jobs file
+     * usage: WorkloadGenerator file count [seed] [load] [exponential|pareto|fixed] [poisson|bursty]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: WorkloadGenerator file count [seed] [load] " +
+                    "[exponential|pareto|fixed] [poisson|bursty]");
+            return;
+        }
+
+        WorkloadGenerator generator = new WorkloadGenerator(
+                args.length > 2 ? Long.parseLong(args[2]) : 0, Integer.parseInt(args[1]));
+        if (args.length > 3)
+            generator.setLoad(Double.parseDouble(args[3]));
+        if (args.length > 4)
+            generator.setServiceDistribution(args[4].equalsIgnoreCase("pareto") ? PARETO :
+                    args[4].equalsIgnoreCase("fixed") ? FIXED : EXPONENTIAL);
+        if (args.length > 5)
+            generator.setArrivalProcess(args[5].equalsIgnoreCase("bursty") ? BURSTY : POISSON);
+
+        try (Writer writer = new BufferedWriter(new FileWriter(args[0]), 1 << 16)) {
+            generator.write(writer);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package schedulers;
+
+import driver.Job;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+
+/***
+ * class: schedulers.ArrivalIndex
+ * jobs sorted by arrival time, or by the end of their last i/o burst,
+ * in an array with a Fenwick tree counting the jobs still in the index, so that the first job
+ * and the number of jobs arriving within a time range are found in O(log n)
+ */
+class ArrivalIndex implements ReadyQueue {
+    private Job[] jobs;                                 // jobs by arrival time, null once removed
+    private int[] arrivals;                             // arrival time of each slot
+    private int[] tree;                                 // Fenwick tree of jobs left, 1-based
+    private int used;                                   // slots used so far
+    private int size;                                   // number of jobs in the index
+    private final IdentityHashMap<Job, Integer> index;  // slot of each job
+
+
+    /***
+     * constructor
+     * create an empty index
+     */
+    ArrivalIndex() {
+        jobs = new Job[16];
+        arrivals = new int[16];
+        tree = new int[17];
+        index = new IdentityHashMap<>();
+    }
+
+
+    /***
+     * method: add
+     * append a job, jobs have to be added by arrival time
+     * @param job: a job arriving no earlier than the last one added
+     */
+    @Override
+    public void add(Job job) {
+        if (used > 0 && job.getReadyTime() < arrivals[used - 1]) {
+            throw new IllegalArgumentException("jobs must be added by arrival time: " + job.getName());
+        }
+        if (used == jobs.length) {
+            jobs = Arrays.copyOf(jobs, used * 2);
+            arrivals = Arrays.copyOf(arrivals, used * 2);
+            tree = Arrays.copyOf(tree, used * 2 + 1);
+        }
+
+        jobs[used] = job;
+        arrivals[used] = job.getReadyTime();
+        index.put(job, used);
+        used++;
+        size++;
+
+        // a new last node covers itself and the nodes below it
+        int node = used;
+        tree[node] = 1;
+        for (int child = node - 1; child > node - (node & -node); child -= child & -child) {
+            tree[node] += tree[child];
+        }
+    }
+
+
+    @Override
+    public boolean remove(Job job) {
+        Integer slot = index.remove(job);
+        if (slot == null) {
+            return false;
+        }
+        jobs[slot] = null;
+        size--;
+        for (int node = slot + 1; node <= used; node += node & -node) {
+            tree[node]--;
+        }
+        return true;
+    }
+
+
+    /***
+     * method: peek
+     * @return the earliest arriving job, or null if the index is empty
+     */
+    @Override
+    public Job peek() {
+        if (size == 0) {
+            return null;
+        }
+
+        // descend the tree to the first slot with a job left
+        int node = 0;
+        for (int step = Integer.highestOneBit(used); step > 0; step >>= 1) {
+            if (node + step <= used && tree[node + step] == 0) {
+                node += step;
+            }
+        }
+        return jobs[node];
+    }
+
+
+    @Override
+    public Job poll() {
+        Job job = peek();
+        if (job != null) {
+            remove(job);
+        }
+        return job;
+    }
+
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+
+    /***
+     * method: countBetween
+     * count the jobs left that arrive strictly between 2 times
+     * @param after: jobs must arrive after this time
+     * @param before: jobs must arrive before this time
+     * @return number of jobs
+     */
+    int countBetween(int after, int before) {
+        if (before <= after + 1) {
+            return 0;
+        }
+        return count(firstAfter(before - 1)) - count(firstAfter(after));
+    }
+
+
+    /***
+     * method: firstAfter
+     * binary search the first slot arriving after a time
+     * @param time: a time
+     * @return the slot, or used if none
+     */
+    private int firstAfter(int time) {
+        int low = 0;
+        int high = used;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (arrivals[mid] <= time)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+
+    /***
+     * method: count
+     * @param slots: number of slots from the start
+     * @return number of jobs left in those slots
+     */
+    private int count(int slots) {
+        int count = 0;
+        for (int node = slots; node > 0; node -= node & -node) {
+            count += tree[node];
+        }
+        return count;
+    }
+}
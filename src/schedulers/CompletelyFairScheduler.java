@@ -0,0 +1,256 @@
+package schedulers;
+
+import driver.Job;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeSet;
+
+
+/***
+ * class: schedulers.CompletelyFairScheduler
+ * Modeled on the Completely Fair Scheduler of Linux.
+ * Each job has a virtual runtime, the time it ran scaled by the weight of its nice value,
+ * and the job with the smallest virtual runtime runs next, so every job gets a share
+ * of the cpu proportional to its weight.
+ * Runnable jobs are kept in a red-black tree (TreeSet) ordered by virtual runtime,
+ * so each decision costs O(log n) whatever the number of runnable jobs.
+ *
+ * The slice of a job is its share of a period: the target latency,
+ * or the minimum granularity times the number of runnable jobs when they are too many
+ * for every one of them to run at least the minimum granularity within the latency.
+ * A new job starts at the smallest virtual runtime, and it only takes the cpu
+ * from a job whose slice is not over when it is ahead by more than the granularity.
+ */
+public class CompletelyFairScheduler extends PreemptiveScheduler {
+    public static final int DEFAULT_LATENCY = 24;        // 6 ms of Linux, with a time unit of 0.25 ms
+    public static final int DEFAULT_GRANULARITY = 3;     // 0.75 ms
+    private static final int NICE_0_WEIGHT = 1024;
+    private static final long SCALE = 1 << 20;           // virtual runtime of one time unit of a nice 0 job is 1024
+
+    // weight of each nice value from -20 to 19, each step is about 10% of the cpu
+    private static final int[] WEIGHTS = {
+            88761, 71755, 56483, 46273, 36291,
+            29154, 23254, 18705, 14949, 11916,
+            9548, 7620, 6100, 4904, 3906,
+            3121, 2501, 1991, 1586, 1277,
+            1024, 820, 655, 526, 423,
+            335, 272, 215, 172, 137,
+            110, 87, 70, 56, 45,
+            36, 29, 23, 18, 15};
+
+    private final int latency;                           // time for every runnable job to run once
+    private final int granularity;                       // least time a job runs before it is preempted
+    private final TreeSet<Entity> tree = new TreeSet<>(
+            Comparator.comparingLong((Entity e) -> e.vruntime).thenComparingLong(e -> e.order));
+    private Entity current;                              // running job, out of the tree
+    private Entity last;                                 // job preempted before the end of its slice
+    private long minVruntime;                            // smallest virtual runtime, never decreases
+    private long totalWeight;                            // weight of the runnable jobs, the running one too
+    private long admitted;                               // jobs admitted, breaks ties in the tree
+    private int dispatchTime;                            // time the running job was dispatched
+    private int sliceEnd;                                // end of the slice of the last dispatched job
+
+
+    /***
+     * class: Entity
+     * a runnable job with its weight and virtual runtime
+     */
+    private static class Entity {
+        final Job job;
+        final int weight;                                // weight of the nice value of the job
+        final long order;                                // order of admission
+        long vruntime;                                   // virtual runtime, in 1/1024 of a time unit at nice 0
+
+        Entity(Job job, int weight, long order) {
+            this.job = job;
+            this.weight = weight;
+            this.order = order;
+        }
+    }
+
+
+    public CompletelyFairScheduler(LinkedList<Job> jobs) {
+        this(jobs, DEFAULT_LATENCY, DEFAULT_GRANULARITY);
+    }
+
+    /***
+     * constructor
+     * @param jobs: list of jobs
+     * @param latency: target latency, time for every runnable job to run once
+     * @param granularity: minimum granularity, least time a job runs before it is preempted
+     */
+    public CompletelyFairScheduler(LinkedList<Job> jobs, int latency, int granularity) {
+        super(jobs);
+        checkPeriod(latency, granularity);
+        this.latency = latency;
+        this.granularity = granularity;
+    }
+
+    public CompletelyFairScheduler(Iterator<Job> jobs) {
+        this(jobs, DEFAULT_LATENCY, DEFAULT_GRANULARITY);
+    }
+
+    public CompletelyFairScheduler(Iterator<Job> jobs, int latency, int granularity) {
+        super(jobs);
+        checkPeriod(latency, granularity);
+        this.latency = latency;
+        this.granularity = granularity;
+    }
+
+
+    private static void checkPeriod(int latency, int granularity) {
+        if (granularity < 1 || latency < granularity)
+            throw new IllegalArgumentException("the granularity must be positive and at most the latency: " +
+                    granularity + ", " + latency);
+    }
+
+
+    /***
+     * method: weight
+     * @param nice: nice value from -20 to 19
+     * @return weight of the nice value, 1024 for 0
+     */
+    public static int weight(int nice) {
+        return WEIGHTS[nice + 20];
+    }
+
+
+    @Override
+    public void run() {
+        if (latency == DEFAULT_LATENCY && granularity == DEFAULT_GRANULARITY)
+            out.println("CompletelyFairScheduler:");
+        else
+            out.printf("CompletelyFairScheduler (with latency = %d, granularity = %d):%n", latency, granularity);
+        super.run();
+    }
+
+
+    @Override
+    void reset() {
+        tree.clear();
+        current = null;
+        last = null;
+        minVruntime = 0;
+        totalWeight = 0;
+        admitted = 0;
+        sliceEnd = 0;
+
+        // sort the list of jobs by the arrival time
+        listOfJobs.sort(Comparator.comparingInt(Job::getArrivalTime));
+    }
+
+
+    @Override
+    void readyJobs(List<Job> jobs) {
+        for (Entity entity : tree)
+            jobs.add(entity.job);
+    }
+
+
+    @Override
+    boolean readyQueueEmpty() {
+        return tree.isEmpty();
+    }
+
+
+    @Override
+    void admit(Job job) {
+        Entity entity = new Entity(job, weight(job.getNice()), admitted++);
+        entity.vruntime = minVruntime;
+        totalWeight += entity.weight;
+        tree.add(entity);
+    }
+
+
+    /*
+     * the job with the smallest virtual runtime,
+     * unless the last job was preempted by an arrival before the end of its slice
+     * and the leftmost job is not ahead of it by more than the granularity
+     */
+    @Override
+    Job dispatch() {
+        Entity next = tree.first();
+        if (last != null && next != last && frame < sliceEnd
+                && last.vruntime - next.vruntime <= granularity * SCALE / next.weight)
+            next = last;
+
+        if (next != last || frame >= sliceEnd)
+            sliceEnd = frame + slice(next);
+        tree.remove(next);
+        current = next;
+        last = null;
+        dispatchTime = frame;
+        return next.job;
+    }
+
+
+    /***
+     * method: slice
+     * @param entity: a runnable job, still in the tree
+     * @return share of the period of the job, at least the granularity
+     */
+    private int slice(Entity entity) {
+        long period = Math.max(latency, (long) tree.size() * granularity);
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(granularity, period * entity.weight / totalWeight));
+    }
+
+
+    /*
+     * a job alone keeps running until the next job is admitted,
+     * otherwise until the end of its slice or the next admission
+     */
+    @Override
+    int timeSlice(Job job) {
+        if (tree.isEmpty())
+            return untilNextAdmission();
+        return Math.min(sliceEnd - frame, untilNextAdmission());
+    }
+
+
+    @Override
+    void preempt(Job job) {
+        account();
+        tree.add(current);
+        if (frame < sliceEnd)
+            last = current;
+        current = null;
+    }
+
+
+    @Override
+    void complete(Job job) {
+        account();
+        totalWeight -= current.weight;
+        current = null;
+        super.complete(job);
+    }
+
+
+    /*
+     * a blocked job leaves the tree until its i/o ends, then comes back like an arrival
+     */
+    @Override
+    void block(Job job) {
+        account();
+        totalWeight -= current.weight;
+        current = null;
+    }
+
+
+    /***
+     * method: account
+     * add the time the running job ran to its virtual runtime
+     * and move the smallest virtual runtime forward
+     */
+    private void account() {
+        current.vruntime += (frame - dispatchTime) * SCALE / current.weight;
+        long smallest = current.vruntime;
+        if (!tree.isEmpty())
+            smallest = Math.min(smallest, tree.first().vruntime);
+        minVruntime = Math.max(minVruntime, smallest);
+    }
+
+}
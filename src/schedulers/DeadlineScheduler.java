@@ -0,0 +1,203 @@
+package schedulers;
+
+import driver.Job;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+
+/***
+ * class: schedulers.DeadlineScheduler
+ * abstract class of the real-time schedulers, Earliest Deadline First and Least Laxity First
+ * ready jobs with a deadline wait in a heap ordered by the priority of the policy,
+ * jobs without one wait in a FIFO queue and only run when no job with a deadline is ready,
+ * an arrival preempts the running job as in Shortest Remaining Time
+ *
+ * admission check: the synthetic utilization, the sum of duration / (deadline - arrival)
+ * of the admitted jobs whose deadline has not passed, must stay at most 1,
+ * which is enough for every deadline to be met on one cpu
+ * a job over the bound is counted as an admission failure,
+ * with admission control it also loses its guarantee and runs behind the jobs with a deadline
+ * a job back from i/o is not checked again, it goes back to the queue it was dispatched from
+ */
+abstract class DeadlineScheduler extends PreemptiveScheduler {
+    private static final double BOUND = 1;                   // utilization bound of one cpu
+
+    private final JobHeap queue;                             // ready jobs with a deadline
+    private final LinkedList<Job> background = new LinkedList<>(); // ready jobs without a guaranteed deadline
+    private final PriorityQueue<Admission> admissions = new PriorityQueue<>(
+            Comparator.comparingInt((Admission a) -> a.deadline));
+    private final Set<Job> blockedBackground = new HashSet<>(); // jobs in i/o dispatched without their deadline
+    private double utilization;                              // synthetic utilization of the admissions
+    private boolean admissionControl;                        // refuse jobs over the bound
+    private boolean realTime;                                // the running job came from the heap
+
+
+    /***
+     * class: Admission
+     * a job counted in the synthetic utilization until its deadline
+     */
+    private static class Admission {
+        final int deadline;
+        final double density;                                // duration / (deadline - arrival)
+
+        Admission(int deadline, double density) {
+            this.deadline = deadline;
+            this.density = density;
+        }
+    }
+
+
+    /***
+     * constructor
+     * @param jobs: list of jobs
+     * @param priority: order of the jobs with a deadline, lower runs first
+     */
+    DeadlineScheduler(LinkedList<Job> jobs, Comparator<Job> priority) {
+        super(jobs);
+        queue = new JobHeap(priority);
+    }
+
+    DeadlineScheduler(Iterator<Job> jobs, Comparator<Job> priority) {
+        super(jobs);
+        queue = new JobHeap(priority);
+    }
+
+
+    /***
+     * method: setAdmissionControl
+     * @param admissionControl: true to run the jobs over the utilization bound without their deadline
+     */
+    public void setAdmissionControl(boolean admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    public boolean getAdmissionControl() {
+        return admissionControl;
+    }
+
+
+    @Override
+    void reset() {
+        queue.clear();
+        background.clear();
+        admissions.clear();
+        blockedBackground.clear();
+        utilization = 0;
+        realTime = false;
+
+        // sort the list of jobs by the arrival time
+        listOfJobs.sort(Comparator.comparingInt(Job::getArrivalTime));
+    }
+
+
+    @Override
+    void readyJobs(List<Job> jobs) {
+        queue.copyTo(jobs);
+        jobs.addAll(background);
+    }
+
+
+    @Override
+    boolean readyQueueEmpty() {
+        return queue.isEmpty() && background.isEmpty();
+    }
+
+
+    @Override
+    void admit(Job job) {
+        if (!job.hasDeadline()) {
+            background.addLast(job);
+            return;
+        }
+
+        // deadlines that passed leave the synthetic utilization
+        while (!admissions.isEmpty() && admissions.peek().deadline <= frame)
+            utilization -= admissions.poll().density;
+        if (admissions.isEmpty())
+            utilization = 0;
+
+        double density = job.getDeadline() > job.getArrivalTime()
+                ? (double) job.getDuration() / ((long) job.getDeadline() - job.getArrivalTime())
+                : Double.POSITIVE_INFINITY;
+        if (utilization + density > BOUND) {
+            metrics.recordAdmissionFailure();
+            if (admissionControl) {
+                background.addLast(job);
+                return;
+            }
+        }
+        else {
+            utilization += density;
+            admissions.add(new Admission(job.getDeadline(), density));
+        }
+        queue.add(job);
+    }
+
+
+    @Override
+    Job dispatch() {
+        realTime = !queue.isEmpty();
+        return realTime ? queue.poll() : background.removeFirst();
+    }
+
+
+    /*
+     * the order of the jobs with a deadline only changes when a job arrives
+     */
+    @Override
+    int timeSlice(Job job) {
+        return untilNextAdmission();
+    }
+
+
+    /*
+     * a job without a deadline keeps its place at the head of the background queue
+     */
+    @Override
+    void preempt(Job job) {
+        if (realTime)
+            queue.add(job);
+        else
+            background.addFirst(job);
+    }
+
+
+    @Override
+    void block(Job job) {
+        if (!realTime)
+            blockedBackground.add(job);
+    }
+
+
+    @Override
+    void wake(Job job) {
+        if (blockedBackground.remove(job))
+            background.addLast(job);
+        else
+            queue.add(job);
+    }
+
+
+    /***
+     * method: peekRealTime
+     * @return the ready job with a deadline that runs next, or null if none
+     */
+    Job peekRealTime() {
+        return queue.peek();
+    }
+
+    /***
+     * method: isRealTime
+     * @return true if the running job was dispatched with its deadline
+     */
+    boolean isRealTime() {
+        return realTime;
+    }
+
+}
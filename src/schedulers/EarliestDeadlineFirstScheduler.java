@@ -0,0 +1,35 @@
+package schedulers;
+
+import driver.Job;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+
+
+/***
+ * class: schedulers.EarliestDeadlineFirstScheduler
+ * Choose the job with the earliest deadline.
+ * A new job with an earlier deadline preempts the running job.
+ * On one cpu, if any order meets every deadline, this order does.
+ */
+public class EarliestDeadlineFirstScheduler extends DeadlineScheduler {
+
+    public EarliestDeadlineFirstScheduler(LinkedList<Job> jobs) {
+        super(jobs, Comparator.comparingInt(Job::getDeadline));
+    }
+
+    public EarliestDeadlineFirstScheduler(Iterator<Job> jobs) {
+        super(jobs, Comparator.comparingInt(Job::getDeadline));
+    }
+
+
+    @Override
+    public void run() {
+        out.println(getAdmissionControl()
+                ? "EarliestDeadlineFirstScheduler (with admission control):"
+                : "EarliestDeadlineFirstScheduler:");
+        super.run();
+    }
+
+}
@@ -2,7 +2,12 @@ package schedulers;
 
 import driver.Job;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 
 
 /***
@@ -11,17 +16,102 @@ import java.util.LinkedList;
  * A process begins as high-priority and moves to lower priority queues with each execution.
  * This penalizes longer jobs while allowing shorter jobs to finish quickly.
  * Does not require a time estimate.
+ * By default 3 queues with a slice of 1, the number of queues and their slices can be given.
+ * With a boost period, every job goes back to the highest queue once per period,
+ * so long jobs in the lowest queue do not starve under a stream of short jobs.
+ * No slice runs past the time of the next boost, so the boost comes on time.
+ *
+ * A bitmap keeps one bit per non-empty queue, so the highest non-empty queue
+ * is found in O(1) whatever the number of queues.
  */
 public class FeedbackScheduler extends PreemptiveScheduler {
-    private LinkedList<Job> queue1;
-    private LinkedList<Job> queue2;
-    private LinkedList<Job> queue3;
+    public static final int MAX_LEVELS = 64;                 // one bit of the bitmap per queue
+    private static final int[] DEFAULT_QUANTA = {1, 1, 1};   // 3 queues with a slice of 1
+
+    private List<LinkedList<Job>> queues;    // queues from the highest to the lowest priority
+    private int[] quanta;                    // slice of a job competing in each queue
+    private int queueNumber;                 // queue number of the running job, from 0
+    private long occupied;                   // bit i is set when queue i is not empty
+    private int boostPeriod;                 // time between two boosts, 0 for none
+    private long nextBoost;                  // time of the next boost
 
     public FeedbackScheduler(LinkedList<Job> jobs) {
+        this(jobs, DEFAULT_QUANTA);
+    }
+
+    /***
+     * constructor
+     * @param jobs: list of jobs
+     * @param quanta: slice of each queue, from the highest priority, one queue per slice
+     */
+    public FeedbackScheduler(LinkedList<Job> jobs, int[] quanta) {
+        this(jobs, quanta, 0);
+    }
+
+    /***
+     * constructor
+     * @param jobs: list of jobs
+     * @param quanta: slice of each queue, from the highest priority, one queue per slice
+     * @param boostPeriod: time between two moves of every job to the highest queue, 0 for none
+     */
+    public FeedbackScheduler(LinkedList<Job> jobs, int[] quanta, int boostPeriod) {
         super(jobs);
-        queue1 = new LinkedList<>();
-        queue2 = new LinkedList<>();
-        queue3 = new LinkedList<>();
+        createQueues(quanta, boostPeriod);
+    }
+
+    public FeedbackScheduler(Iterator<Job> jobs) {
+        this(jobs, DEFAULT_QUANTA);
+    }
+
+    public FeedbackScheduler(Iterator<Job> jobs, int[] quanta) {
+        this(jobs, quanta, 0);
+    }
+
+    public FeedbackScheduler(Iterator<Job> jobs, int[] quanta, int boostPeriod) {
+        super(jobs);
+        createQueues(quanta, boostPeriod);
+    }
+
+
+    private void createQueues(int[] quanta, int boostPeriod) {
+        checkQueues(quanta, boostPeriod);
+        this.quanta = quanta.clone();
+        this.boostPeriod = boostPeriod;
+        queues = new ArrayList<>();
+        for (int i = 0; i < quanta.length; i++)
+            queues.add(new LinkedList<>());
+    }
+
+
+    /***
+     * method: checkQueues
+     * @param quanta: slice of each queue, 1 to MAX_LEVELS positive slices
+     * @param boostPeriod: time between two boosts, 0 for none
+     * @throws IllegalArgumentException if the queues cannot be built
+     */
+    static void checkQueues(int[] quanta, int boostPeriod) {
+        if (quanta.length == 0 || quanta.length > MAX_LEVELS)
+            throw new IllegalArgumentException("1 to " + MAX_LEVELS + " queues are needed: " + quanta.length);
+        for (int quantum : quanta) {
+            if (quantum < 1)
+                throw new IllegalArgumentException("quanta must be positive: " + Arrays.toString(quanta));
+        }
+        if (boostPeriod < 0)
+            throw new IllegalArgumentException("the boost period cannot be negative: " + boostPeriod);
+    }
+
+
+    /***
+     * method: doublingQuanta
+     * @param levels: number of queues
+     * @param base: slice of the highest queue
+     * @return slices of base * 2^i for queue i, capped at Integer.MAX_VALUE
+     */
+    public static int[] doublingQuanta(int levels, int base) {
+        int[] quanta = new int[levels];
+        for (int level = 0; level < levels; level++)
+            quanta[level] = (int) Math.min(Integer.MAX_VALUE, (long) base << Math.min(level, 31));
+        return quanta;
     }
 
 
@@ -31,23 +121,29 @@ public class FeedbackScheduler extends PreemptiveScheduler {
      * @return true if all queues are empty and false otherwise
      */
     private boolean emptyQueues() {
-        return queue1.isEmpty() && queue2.isEmpty() && queue3.isEmpty();
+        return occupied == 0;
+    }
+
+
+    private void enqueue(int level, Job job) {
+        queues.get(level).addLast(job);
+        occupied |= 1L << level;
     }
 
 
     /***
-     * method: waitJobs
-     * wait all jobs in the list and 3 queues
+     * method: boost
+     * move every job to the highest queue, from the highest queue to the lowest,
+     * each queue keeping its order
      */
-    private void waitJobs() {
-        for(Job j : listOfJobs)
-            j.runSlice(0, 1);
-        for(Job j : queue1)
-            j.runSlice(0, 1);
-        for(Job j : queue2)
-            j.runSlice(0, 1);
-        for(Job j : queue3)
-            j.runSlice(0, 1);
+    private void boost() {
+        LinkedList<Job> highest = queues.get(0);
+        for (int level = 1; level < queues.size(); level++) {
+            highest.addAll(queues.get(level));
+            queues.get(level).clear();
+        }
+        occupied = highest.isEmpty() ? 0 : 1;
+        nextBoost = ((long) frame / boostPeriod + 1) * boostPeriod;
     }
 
 
@@ -59,87 +155,102 @@ public class FeedbackScheduler extends PreemptiveScheduler {
      * @param nextQueue: add the job to the same queue or next queue
      */
     private void addToQueue(Job job, int currentQueueNumber, boolean nextQueue) {
-        if(currentQueueNumber == 1) {
-            if(nextQueue)
-                queue2.addLast(job);
-            else
-                queue1.addLast(job);
-        }
-        else if(currentQueueNumber == 2) {
-            if(nextQueue)
-                queue3.addLast(job);
-            else
-                queue2.addLast(job);
-        }
-        else {
-            queue3.addLast(job);
-        }
+        // the lowest queue keeps its jobs
+        if (nextQueue && currentQueueNumber < queues.size() - 1)
+            enqueue(currentQueueNumber + 1, job);
+        else
+            enqueue(currentQueueNumber, job);
     }
 
 
     @Override
     public void run() {
-        System.out.println("FeedbackScheduler:");
-        int queueNumber = 1;
+        if (boostPeriod > 0)
+            out.printf("FeedbackScheduler (with quanta = %s, boost = %d):%n", Arrays.toString(quanta), boostPeriod);
+        else if (Arrays.equals(quanta, DEFAULT_QUANTA))
+            out.println("FeedbackScheduler:");
+        else
+            out.printf("FeedbackScheduler (with quanta = %s):%n", Arrays.toString(quanta));
+        super.run();
+    }
+
+
+    @Override
+    void reset() {
+        occupied = 0;
+        nextBoost = boostPeriod;
+        for (LinkedList<Job> queue : queues)
+            queue.clear();
 
         // sort the list of jobs by the arrival time
-        Job.setSortMode(FIRST_COME_FIRST_SERVE);
-        listOfJobs.sort(Job::compareTo);
-        frame = 0;
-
-        // run until either the original list or the queue is empty
-        while(!listOfJobs.isEmpty() || !emptyQueues()) {
-            Job job;
-
-            /*
-             * remove the head of the list (job) and add to the queue
-             * if the arrival time of the head <= the current slice time
-             */
-            if(!listOfJobs.isEmpty() && listOfJobs.getFirst().getArrivalTime() <= frame)
-                queue1.add(listOfJobs.removeFirst());
-
-            // dequeue by queue number (highest to lowest priority)
-            if(!queue1.isEmpty()) {
-                job = queue1.removeFirst();
-                queueNumber = 1;
-            }
-            else if(!queue2.isEmpty()) {
-                job = queue2.removeFirst();
-                queueNumber = 2;
-            }
-            else {
-                job = queue3.removeFirst();
-                queueNumber = 3;
-            }
-
-            // run the current job one slice
-            job.runSlice(1, 0);
-
-            // wait all other jobs one slice
-            waitJobs();
-
-            /*
-             * add back to the queues if not done or to the processed list if done
-             * if add to the queue:
-             *      add to the same queue if:
-             *          1. all queues are empty OR
-             *          2. the next job in the listOfJobs is about to be loaded in
-             *      add to the next queue if at least 2 of these conditions fail
-             */
-            if(job.getRemainingTime() > 0) {
-                addToQueue(job, queueNumber, !emptyQueues() ||
-                    (!listOfJobs.isEmpty() &&
-                    listOfJobs.getFirst().getArrivalTime() == frame + 1));
-            }
-            else {
-                processedJobs.addLast(job);
-            }
-
-            // increment frame
-            frame++;
-        }
+        listOfJobs.sort(Comparator.comparingInt(Job::getArrivalTime));
+    }
+
+
+    @Override
+    void readyJobs(List<Job> jobs) {
+        for (LinkedList<Job> queue : queues)
+            jobs.addAll(queue);
+    }
+
+
+    @Override
+    boolean readyQueueEmpty() {
+        return emptyQueues();
+    }
+
 
-        printList();
+    @Override
+    void admit(Job job) {
+        enqueue(0, job);
+    }
+
+
+    /*
+     * boost when the period is over, the running job was preempted by then,
+     * then dequeue from the highest non-empty queue, the lowest set bit
+     */
+    @Override
+    Job dispatch() {
+        if (boostPeriod > 0 && frame >= nextBoost)
+            boost();
+
+        queueNumber = Long.numberOfTrailingZeros(occupied);
+        LinkedList<Job> queue = queues.get(queueNumber);
+        Job job = queue.removeFirst();
+        if (queue.isEmpty())
+            occupied &= ~(1L << queueNumber);
+        return job;
+    }
+
+
+    /*
+     * a job competing with other jobs runs the slice of its queue,
+     * a job alone in the queues keeps running until the next job is admitted,
+     * either way until the next boost at most
+     */
+    @Override
+    int timeSlice(Job job) {
+        int slice = emptyQueues() ? untilNextAdmission() : quanta[queueNumber];
+        if (boostPeriod > 0)
+            slice = (int) Math.min(slice, nextBoost - frame);
+        return slice;
+    }
+
+
+    /*
+     * add back to the queues if not done
+     *      add to the same queue if:
+     *          1. all queues are empty OR
+     *          2. the next job in the listOfJobs is about to be loaded in,
+     *             or a blocked job is about to come back from i/o
+     *      add to the next queue if at least 2 of these conditions fail
+     */
+    @Override
+    void preempt(Job job) {
+        addToQueue(job, queueNumber, !emptyQueues() ||
+                (hasArrivals() &&
+                peekArrival().getArrivalTime() == frame) || wakesAt(frame));
     }
 
 }
@@ -2,6 +2,7 @@ package schedulers;
 
 import driver.Job;
 
+import java.util.Iterator;
 import java.util.LinkedList;
 
 
@@ -14,15 +15,19 @@ public class FirstComeFirstServeScheduler extends NonpreemptiveScheduler {
         super(jobs);
     }
 
+    public FirstComeFirstServeScheduler(Iterator<Job> jobs) {
+        super(jobs);
+    }
+
     @Override
     public void run() {
-        System.out.println("FirstComeFirstServeScheduler:");
+        out.println("FirstComeFirstServeScheduler:");
         super.run();
     }
 
     @Override
     protected Job next() {
-        Job.setSortMode(FIRST_COME_FIRST_SERVE);
+        setSortMode(FIRST_COME_FIRST_SERVE);
         return super.next();
     }
 }
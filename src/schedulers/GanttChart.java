@@ -0,0 +1,289 @@
+package schedulers;
+
+import driver.Job;
+import driver.Timeline;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+
+/***
+ * class: schedulers.GanttChart
+ * chart of a run written one row per job as soon as the job finishes,
+ * so no finished job is kept until the end of the run
+ *
+ * each row is the name of the job then one cell per column, in the order the jobs finish:
+ *   '#' running, '.' in i/o, '-' waiting, ' ' not arrived yet or finished
+ * a column is one time unit by default; with a width, the window is cut into that many columns,
+ * or one per time unit if the window is shorter, whose bounds are the multiples of the window length
+ * divided by the width, so their lengths differ by at most 1;
+ * each column shows the state the job spent the most time in, among the states it was in
+ * only the time window is drawn, found in the timeline of the job by binary search,
+ * so a row costs its number of columns plus the number of intervals of the job in the window
+ *
+ * the rows go through a buffer to a channel, which the chart never closes:
+ * its owner may write several charts in a row to the same channel
+ */
+public class GanttChart {
+    private static final int LABEL = 8;                              // width of the job names
+    private static final byte[] SYMBOLS = {'-', '#', '.'};           // cell of each Timeline state
+    private static final int[] PRIORITY = {Timeline.RUNNING, Timeline.BLOCKED, Timeline.WAITING}; // order of ties
+
+    private final WritableByteChannel channel;                       // where the rows go
+    private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);  // rows not written to the channel yet
+    private final long[] stateTime = new long[SYMBOLS.length];       // time of each state in the current column
+    private String title;                                            // line written before the chart, or null
+    private int from;                                                // first time drawn
+    private int to = Integer.MAX_VALUE;                              // end of the window, MAX_VALUE if open
+    private int width;                                               // number of columns, 0 for one per time unit
+    private long length;                                             // time units of a closed window
+    private long columns;                                            // columns of a row, of a closed window
+    private boolean started;                                         // the header was written
+    private int lastEnd;                                             // latest end of a row of an open window
+
+
+    /***
+     * constructor
+     * create a chart of one column per time unit, from time 0 to the end of the run
+     * @param channel: where the rows are written
+     */
+    public GanttChart(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+
+    /***
+     * method: setTitle
+     * @param title: line written before the chart, none by default
+     */
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    /***
+     * method: setWindow
+     * @param from: first time drawn, 0 by default
+     * @param to: time the chart stops at, Integer.MAX_VALUE for the end of the run
+     */
+    public void setWindow(int from, int to) {
+        if (from < 0 || to <= from)
+            throw new IllegalArgumentException("the window must start at 0 or later and end after its start: " +
+                    from + ".." + to);
+        this.from = from;
+        this.to = to;
+    }
+
+    /***
+     * method: setWidth
+     * @param width: number of columns the window is cut into, 0 by default for one column per time unit,
+     *               a width needs a window with an end, a shorter window has one column per time unit
+     */
+    public void setWidth(int width) {
+        if (width < 0)
+            throw new IllegalArgumentException("the width must not be negative: " + width);
+        this.width = width;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+
+    /***
+     * method: add
+     * write the row of a finished job, a job outside of the window has no row
+     * @param job: a job that ran to its completion
+     */
+    public void add(Job job) {
+        if (!started)
+            start();
+        if (job.getArrivalTime() >= to || job.getCompletionTime() <= from)
+            return;
+
+        int start = Math.max(from, job.getArrivalTime());
+        int end = Math.min(to, job.getCompletionTime());
+        Timeline timeline = job.getTimeline();
+
+        label(job.getName());
+        long column = 0;
+        long columnEnd = bound(1);
+
+        // columns before the arrival of the job
+        while (columnEnd <= start) {
+            put(' ');
+            column++;
+            columnEnd = bound(column + 1);
+        }
+
+        // intervals of the window, whole columns of one interval are drawn at once
+        for (int i = timeline.find(start); i < timeline.size() && timeline.getStart(i) < end; i++) {
+            int state = timeline.getState(i);
+            long time = Math.max(timeline.getStart(i), start);
+            long intervalEnd = Math.min(timeline.getEnd(i), end);
+            while (time < intervalEnd) {
+                long cut = Math.min(intervalEnd, columnEnd);
+                stateTime[state] += cut - time;
+                time = cut;
+                if (time == columnEnd) {
+                    putColumn();
+                    column++;
+                    columnEnd = bound(column + 1);
+                    while (columnEnd <= intervalEnd) {
+                        put(SYMBOLS[state]);
+                        column++;
+                        time = columnEnd;
+                        columnEnd = bound(column + 1);
+                    }
+                }
+            }
+        }
+
+        // column cut by the completion of the job or the end of the window
+        if (stateTime[Timeline.WAITING] + stateTime[Timeline.RUNNING] + stateTime[Timeline.BLOCKED] > 0) {
+            putColumn();
+            column++;
+        }
+
+        if (to == Integer.MAX_VALUE) {
+            lastEnd = Math.max(lastEnd, end);
+        }
+        else {
+            for (; column < columns; column++)
+                put(' ');
+            put('|');
+        }
+        put('\n');
+    }
+
+
+    /***
+     * method: finish
+     * write the time axis of an open window and every buffered row to the channel
+     */
+    public void finish() {
+        if (!started)
+            start();
+        if (to == Integer.MAX_VALUE)
+            axis(Math.max(0, (long) lastEnd - from));
+        flush();
+    }
+
+
+    /***
+     * method: start
+     * write the title, and the time axis of a window with an end
+     */
+    private void start() {
+        started = true;
+        if (width > 0 && to == Integer.MAX_VALUE)
+            throw new IllegalStateException("a chart with a width needs a window with an end");
+        length = (long) to - from;
+        columns = width > 0 ? Math.min(width, length) : length;
+
+        if (title != null)
+            text(title + "\n");
+        if (to != Integer.MAX_VALUE) {
+            String perColumn = length % columns == 0 ? String.valueOf(length / columns)
+                    : String.format(Locale.ROOT, "%.2f", (double) length / columns);
+            text(String.format("%-" + LABEL + "s %d..%d, %d columns of %s%n", "time", from, to, columns, perColumn));
+            axis(columns);
+        }
+    }
+
+
+    /***
+     * method: bound
+     * @param column: a column, or the number of columns for the end of the last one
+     * @return time the column starts at
+     */
+    private long bound(long column) {
+        if (to == Integer.MAX_VALUE || columns == length)
+            return from + column;
+        return from + column * length / columns;
+    }
+
+
+    /***
+     * method: axis
+     * one digit per column, the last digit of its start time for columns of one time unit,
+     * else the last digit of its number
+     * @param count: number of columns
+     */
+    private void axis(long count) {
+        label("");
+        long first = (to == Integer.MAX_VALUE || columns == length) ? from : 0;
+        for (long column = 0; column < count; column++)
+            put((char) ('0' + (first + column) % 10));
+        put('\n');
+    }
+
+
+    /***
+     * method: putColumn
+     * write the state the job spent the most time in during the column, ties go to running, then i/o
+     */
+    private void putColumn() {
+        int dominant = -1;
+        long most = 0;
+        for (int state : PRIORITY) {
+            if (stateTime[state] > most) {
+                most = stateTime[state];
+                dominant = state;
+            }
+            stateTime[state] = 0;
+        }
+        put(dominant < 0 ? ' ' : (char) SYMBOLS[dominant]);
+    }
+
+
+    private void label(String name) {
+        StringBuilder label = new StringBuilder(name);
+        while (label.length() < LABEL)
+            label.append(' ');
+        text(label.append('|').toString());
+    }
+
+    private void text(String text) {
+        for (byte b : text.getBytes(StandardCharsets.UTF_8))
+            put(b);
+    }
+
+    private void put(char c) {
+        put((byte) c);
+    }
+
+    private void put(byte b) {
+        if (!buffer.hasRemaining())
+            flush();
+        buffer.put(b);
+    }
+
+
+    /***
+     * method: flush
+     * write the buffer to the channel
+     */
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+}
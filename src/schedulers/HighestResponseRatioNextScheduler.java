@@ -2,6 +2,7 @@ package schedulers;
 
 import driver.Job;
 
+import java.util.Iterator;
 import java.util.LinkedList;
 
 
@@ -12,11 +13,17 @@ import java.util.LinkedList;
 public class HighestResponseRatioNextScheduler extends NonpreemptiveScheduler {
     public HighestResponseRatioNextScheduler(LinkedList<Job> jobs) {
         super(jobs);
+        priorityQueue = new ResponseRatioQueue(this);
+    }
+
+    public HighestResponseRatioNextScheduler(Iterator<Job> jobs) {
+        super(jobs);
+        priorityQueue = new ResponseRatioQueue(this);
     }
 
     @Override
     public void run() {
-        System.out.println("HighestResponseRatioNextScheduler:");
+        out.println("HighestResponseRatioNextScheduler:");
         super.run();
     }
 
@@ -0,0 +1,207 @@
+package schedulers;
+
+import driver.JobStore;
+
+
+/***
+ * class: schedulers.IndexNonpreemptiveScheduler
+ * First Come First Serve, Shortest Process Next and Highest Response Ratio Next
+ * on the rows of a store, making the same decisions as NonpreemptiveScheduler:
+ * a row joins the queue of the policy once it arrives
+ *
+ * rows are already in arrival order, so the arrival queue is a cursor over the rows
+ * plus a Fenwick tree over the rows for counting the jobs left in a time range
+ */
+public class IndexNonpreemptiveScheduler extends IndexScheduler {
+    private int first;                                 // first row that may not be done
+    private int arrived;                               // rows read into the queue of the policy
+    private int left;                                  // number of jobs not done
+    private int sortMode;                              // FIRST_COME_FIRST_SERVE or the policy
+    private int[] tree;                                // Fenwick tree of jobs not done, 1-based
+    private IntHeap shortest;                          // shortest process next queue, lazy removal
+    private ResponseRatioTree ratios;                  // highest response ratio next queue
+
+
+    /***
+     * constructor
+     * @param store: jobs to run
+     * @param policy: FIRST_COME_FIRST_SERVE, SHORTEST_PROCESS_NEXT or HIGHEST_RESPONSE_RATIO_NEXT
+     */
+    public IndexNonpreemptiveScheduler(JobStore store, int policy) {
+        super(store, policy);
+        if (policy != Scheduler.FIRST_COME_FIRST_SERVE && policy != Scheduler.SHORTEST_PROCESS_NEXT
+                && policy != Scheduler.HIGHEST_RESPONSE_RATIO_NEXT)
+            throw new IllegalArgumentException("not a non-preemptive policy: " + policy);
+    }
+
+
+    @Override
+    public void run() {
+        store.reset();
+        frame = 0;
+        decisions = 0;
+        metrics = new Metrics();
+        first = 0;
+        arrived = 0;
+        left = store.size();
+        sortMode = Scheduler.FIRST_COME_FIRST_SERVE;
+        createQueues();
+        resetSwitches();
+
+        while (left > 0) {
+            int job = next();
+            decisions++;
+            frame += switchTo(job);
+            store.run(job, frame, store.getDuration(job));
+            complete(job);
+            frame += store.getDuration(job);
+        }
+    }
+
+
+    /***
+     * method: createQueues
+     * create the empty queues of the policy
+     */
+    private void createQueues() {
+        int size = store.size();
+        shortest = null;
+        ratios = null;
+        tree = null;
+
+        if (policy == Scheduler.FIRST_COME_FIRST_SERVE)
+            return;
+
+        // every node of a tree of ones counts the rows it covers
+        tree = new int[size + 1];
+        for (int node = 1; node <= size; node++)
+            tree[node] = node & -node;
+
+        if (policy == Scheduler.SHORTEST_PROCESS_NEXT)
+            shortest = new IntHeap();
+        else
+            ratios = new ResponseRatioTree(store, frame);
+    }
+
+
+    /***
+     * method: admit
+     * read the rows arriving by a time into the queue of the policy,
+     * rows already run in first come first serve order are skipped
+     * @param time: a time
+     */
+    private void admit(int time) {
+        for (; arrived < store.size() && store.getArrivalTime(arrived) <= time; arrived++) {
+            if (store.getState(arrived) == JobStore.DONE)
+                continue;
+            if (shortest != null)
+                shortest.add(((long) store.getDuration(arrived) << 32) | arrived, arrived);
+            else
+                ratios.add(arrived, time);
+        }
+    }
+
+
+    /***
+     * method: next
+     * remove and return the first row of the queue matching the sort mode
+     * among the rows arrived, then decide the sort mode of the next selection
+     * @return the next row to run
+     */
+    private int next() {
+        // if the first row left has not arrived, no row has: the cpu idles until it does
+        while (store.getState(first) == JobStore.DONE)
+            first++;
+        frame = Math.max(frame, store.getArrivalTime(first));
+
+        int job;
+        if (sortMode == Scheduler.FIRST_COME_FIRST_SERVE) {
+            job = first;
+        }
+        else if (shortest != null) {
+            admit(frame);
+            while (store.getState(shortest.peek()) == JobStore.DONE)
+                shortest.poll();
+            job = shortest.poll();
+        }
+        else {
+            admit(frame);
+            job = ratios.peek(frame);
+        }
+        remove(job);
+
+        if (policy != Scheduler.FIRST_COME_FIRST_SERVE)
+            nextSortMode(job);
+        return job;
+    }
+
+
+    /*
+     * the row leaves every queue, the heap drops it when it reaches the top
+     */
+    private void remove(int job) {
+        store.setState(job, JobStore.DONE);
+        left--;
+        if (tree != null) {
+            for (int node = job + 1; node < tree.length; node += node & -node)
+                tree[node]--;
+        }
+        if (ratios != null)
+            ratios.remove(job, frame);
+    }
+
+
+    /***
+     * method: nextSortMode
+     * use arrival time as priority if fewer than 2 jobs left have arrived or arrive before the current job ends,
+     * else the policy once more than 1 job arrives while the current job runs
+     * @param job: row of the current job
+     */
+    private void nextSortMode(int job) {
+        if (count(firstAfter(frame + Math.max(store.getDuration(job) - 1, 0))) < 2) {
+            sortMode = Scheduler.FIRST_COME_FIRST_SERVE;
+        }
+        else if (countBetween(frame, frame + store.getDuration(job)) > 1) {
+            sortMode = policy;
+        }
+    }
+
+
+    /***
+     * method: countBetween
+     * count the jobs left that arrive strictly between 2 times
+     * @param after: jobs must arrive after this time
+     * @param before: jobs must arrive before this time
+     * @return number of jobs
+     */
+    private int countBetween(int after, int before) {
+        if (before <= after + 1)
+            return 0;
+        return count(firstAfter(before - 1)) - count(firstAfter(after));
+    }
+
+
+    /*
+     * binary search the first row arriving after a time
+     */
+    private int firstAfter(int time) {
+        int low = 0;
+        int high = store.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (store.getArrivalTime(mid) <= time)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+
+    private int count(int rows) {
+        int count = 0;
+        for (int node = rows; node > 0; node -= node & -node)
+            count += tree[node];
+        return count;
+    }
+}
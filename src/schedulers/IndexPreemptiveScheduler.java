@@ -0,0 +1,397 @@
+package schedulers;
+
+import driver.JobStore;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+
+/***
+ * class: schedulers.IndexPreemptiveScheduler
+ * Round Robin, Shortest Remaining Time and Feedback on the rows of a store,
+ * the same event driven engine as PreemptiveScheduler:
+ * the frame jumps to the next admission, completion or preemption point
+ */
+public class IndexPreemptiveScheduler extends IndexScheduler {
+    private static final int ROW_BYTES = 1 + 4 * Integer.BYTES;   // state, remaining, start, completion, last end
+    private static final int ROWS_BUFFER = ROW_BYTES << 12;      // rows written at once in a snapshot
+
+    private int quantum;                               // round robin quantum
+    private int[] quanta;                              // slice of each feedback queue
+    private int next;                                  // first row not admitted yet
+    private int lastAdmission;                         // time the last job was admitted
+    private IntQueue[] queues;                         // round robin queue, or feedback queues
+    private int queueNumber;                           // feedback queue of the running job
+    private long occupied;                             // bit i is set when queue i is not empty
+    private int boostPeriod;                           // feedback: time between two boosts, 0 for none
+    private long nextBoost;                            // feedback: time of the next boost
+    private boolean jobDone;                           // round robin: a job finished since the last admission
+    private IntHeap heap;                              // shortest remaining time queue
+    private long added;                                // jobs added to the heap, breaks ties
+    private boolean started;                           // a run is going on, see runUntil
+
+
+    /***
+     * constructor
+     * @param store: jobs to run
+     * @param policy: ROUND_ROBIN, SHORTEST_REMAINING_TIME or FEEDBACK
+     * @param quantum: quantum of round robin
+     */
+    public IndexPreemptiveScheduler(JobStore store, int policy, int quantum) {
+        super(store, policy);
+        if (policy != Scheduler.ROUND_ROBIN && policy != Scheduler.SHORTEST_REMAINING_TIME
+                && policy != Scheduler.FEEDBACK)
+            throw new IllegalArgumentException("not a preemptive policy: " + policy);
+        this.quantum = quantum;
+        this.quanta = new int[] {1, 1, 1};
+    }
+
+
+    /***
+     * constructor
+     * a feedback scheduler with one queue per slice, see FeedbackScheduler
+     * @param store: jobs to run
+     * @param quanta: slice of each queue, from the highest priority
+     */
+    public IndexPreemptiveScheduler(JobStore store, int[] quanta) {
+        this(store, quanta, 0);
+    }
+
+
+    /***
+     * constructor
+     * a feedback scheduler with one queue per slice and a periodic boost, see FeedbackScheduler
+     * @param store: jobs to run
+     * @param quanta: slice of each queue, from the highest priority
+     * @param boostPeriod: time between two moves of every job to the highest queue, 0 for none
+     */
+    public IndexPreemptiveScheduler(JobStore store, int[] quanta, int boostPeriod) {
+        this(store, Scheduler.FEEDBACK, 1);
+        FeedbackScheduler.checkQueues(quanta, boostPeriod);
+        this.quanta = quanta.clone();
+        this.boostPeriod = boostPeriod;
+    }
+
+
+    @Override
+    public void run() {
+        start();
+        runUntil(Integer.MAX_VALUE);
+    }
+
+
+    /***
+     * method: start
+     * reset the store and the queues before a run
+     */
+    void start() {
+        store.reset();
+        frame = 0;
+        decisions = 0;
+        metrics = new Metrics();
+        next = 0;
+        lastAdmission = -1;
+        jobDone = false;
+        added = 0;
+        occupied = 0;
+        nextBoost = boostPeriod;
+        resetSwitches();
+        heap = new IntHeap();
+        queues = new IntQueue[policy == Scheduler.FEEDBACK ? quanta.length : 1];
+        for (int i = 0; i < queues.length; i++)
+            queues[i] = new IntQueue();
+        started = true;
+    }
+
+
+    /***
+     * method: runUntil
+     * run from the current frame until the frame reaches a time or every job finished,
+     * starting a run first if none is going on
+     * slices are never cut, so the frame may stop past the time,
+     * and running on from there makes the same decisions as a run in one go
+     * @param time: time to stop at
+     */
+    public void runUntil(int time) {
+        if (!started)
+            start();
+
+        while ((next < store.size() || !readyQueueEmpty()) && frame < time) {
+            // arrival events
+            admitArrivals();
+
+            // idle cpu: jump to the next arrival
+            if (readyQueueEmpty()) {
+                frame = nextAdmission();
+                continue;
+            }
+
+            // switch to the dispatched job, then run it until its next event,
+            // at least one time unit when an arrival was due while switching
+            int job = dispatch();
+            decisions++;
+            store.setState(job, JobStore.RUNNING);
+            frame += switchTo(job);
+            int slice = Math.min(store.getRemainingTime(job), Math.max(1, timeSlice()));
+            store.run(job, frame, slice);
+            frame += slice;
+            if (lastEnd != null)
+                lastEnd[job] = frame;
+
+            // completion or preemption event
+            if (store.getRemainingTime(job) > 0) {
+                store.setState(job, JobStore.READY);
+                preempt(job);
+            }
+            else {
+                jobDone = true;
+                complete(job);
+            }
+        }
+    }
+
+
+    /***
+     * method: isDone
+     * @return true if every job of the store finished
+     */
+    public boolean isDone() {
+        return started && next == store.size() && readyQueueEmpty();
+    }
+
+    public int getQuantum() {
+        return quantum;
+    }
+
+    public int[] getQuanta() {
+        return quanta.clone();
+    }
+
+    public int getBoostPeriod() {
+        return boostPeriod;
+    }
+
+
+    /***
+     * method: write
+     * write the state of the run between two events, see Snapshot:
+     * the counters, the ready queues in their order, the admitted rows and the metrics,
+     * rows not admitted yet are still as in the store
+     * @param out: where to write
+     */
+    void write(DataOutput out) throws IOException {
+        if (!started)
+            start();
+        out.writeInt(frame);
+        out.writeLong(decisions);
+        out.writeInt(next);
+        out.writeInt(lastAdmission);
+        out.writeBoolean(jobDone);
+        out.writeLong(added);
+        out.writeLong(nextBoost);
+        out.writeInt(queues.length);
+        for (IntQueue queue : queues)
+            queue.write(out);
+        heap.write(out);
+
+        out.writeInt(lastJob);
+        out.writeBoolean(lastEnd != null);
+
+        // the rows go through a buffer, a few bytes each
+        ByteBuffer rows = ByteBuffer.allocate(ROWS_BUFFER);
+        for (int job = 0; job < next; job++) {
+            if (rows.remaining() < ROW_BYTES) {
+                out.write(rows.array(), 0, rows.position());
+                rows.clear();
+            }
+            rows.put((byte) store.getState(job));
+            rows.putInt(store.getRemainingTime(job));
+            rows.putInt(store.getStartTime(job));
+            rows.putInt(store.getCompletionTime(job));
+            if (lastEnd != null)
+                rows.putInt(lastEnd[job]);
+        }
+        out.write(rows.array(), 0, rows.position());
+        metrics.write(out);
+    }
+
+
+    /***
+     * method: read
+     * start a run from a state written by write,
+     * the parameters of this scheduler may differ from the ones of the written run:
+     * feedback jobs below the lowest queue go to the lowest queue,
+     * and jobs that ran without a cache penalty count as cold
+     * @param in: where to read
+     */
+    void read(DataInput in) throws IOException {
+        start();
+        frame = in.readInt();
+        decisions = in.readLong();
+        next = in.readInt();
+        if (next < 0 || next > store.size())
+            throw new IOException("corrupt snapshot: " + next + " jobs admitted out of " + store.size());
+        lastAdmission = in.readInt();
+        jobDone = in.readBoolean();
+        added = in.readLong();
+        nextBoost = in.readLong();
+        int levels = in.readInt();
+        if (levels < 1 || levels > FeedbackScheduler.MAX_LEVELS)
+            throw new IOException("corrupt snapshot: " + levels + " queues");
+        for (int level = 0; level < levels; level++) {
+            int size = in.readInt();
+            for (int i = 0; i < size; i++)
+                enqueue(Math.min(level, queues.length - 1), row(in.readInt()));
+        }
+        heap.read(in);
+
+        lastJob = in.readInt();
+        boolean slices = in.readBoolean();
+        int rowBytes = slices ? ROW_BYTES : ROW_BYTES - Integer.BYTES;
+        ByteBuffer rows = ByteBuffer.allocate(ROWS_BUFFER / ROW_BYTES * rowBytes);
+        rows.limit(0);
+        for (int job = 0; job < next; job++) {
+            if (!rows.hasRemaining()) {
+                rows.clear();
+                rows.limit(Math.min(rows.capacity(), (next - job) * rowBytes));
+                in.readFully(rows.array(), 0, rows.limit());
+            }
+            store.restore(job, rows.get(), rows.getInt(), rows.getInt(), rows.getInt());
+            int end = slices ? rows.getInt() : 0;
+            if (lastEnd != null)
+                lastEnd[job] = end;
+        }
+        metrics.read(in);
+    }
+
+
+    private int row(int job) throws IOException {
+        if (job < 0 || job >= next)
+            throw new IOException("corrupt snapshot: job " + job + " is not admitted");
+        return job;
+    }
+
+
+    /***
+     * method: nextAdmission
+     * time the next row gets admitted, at most one job is admitted per time unit,
+     * round robin admits every arrived job at once
+     * @return the admission time of the next row
+     */
+    private int nextAdmission() {
+        return Math.max(store.getArrivalTime(next), lastAdmission + 1);
+    }
+
+
+    private int untilNextAdmission() {
+        return next < store.size() ? nextAdmission() - frame : Integer.MAX_VALUE;
+    }
+
+
+    private void admitArrivals() {
+        while (next < store.size() && nextAdmission() <= frame) {
+            if (policy != Scheduler.ROUND_ROBIN)
+                lastAdmission = nextAdmission();
+            store.setState(next, JobStore.READY);
+            admit(next++);
+        }
+    }
+
+
+    private boolean readyQueueEmpty() {
+        if (policy == Scheduler.SHORTEST_REMAINING_TIME)
+            return heap.isEmpty();
+        return occupied == 0;
+    }
+
+
+    private void enqueue(int level, int job) {
+        queues[level].addLast(job);
+        occupied |= 1L << level;
+    }
+
+
+    /*
+     * feedback: move every job to the highest queue, each queue keeping its order
+     */
+    private void boost() {
+        for (int level = 1; level < queues.length; level++) {
+            while (!queues[level].isEmpty())
+                queues[0].addLast(queues[level].removeFirst());
+        }
+        occupied = queues[0].isEmpty() ? 0 : 1;
+        nextBoost = ((long) frame / boostPeriod + 1) * boostPeriod;
+    }
+
+
+    /*
+     * round robin puts a new job before the last job of the queue,
+     * unless the queue is empty or a job just finished, like RoundRobinScheduler
+     */
+    private void admit(int job) {
+        if (policy == Scheduler.SHORTEST_REMAINING_TIME) {
+            addToHeap(job);
+        }
+        else if (policy == Scheduler.ROUND_ROBIN && !jobDone) {
+            queues[0].addBeforeLast(job);
+            occupied = 1;
+        }
+        else {
+            enqueue(0, job);
+            jobDone = false;
+        }
+    }
+
+
+    private int dispatch() {
+        if (policy == Scheduler.SHORTEST_REMAINING_TIME)
+            return heap.poll();
+        if (boostPeriod > 0 && frame >= nextBoost)
+            boost();
+
+        // the highest non-empty queue is the lowest set bit
+        queueNumber = Long.numberOfTrailingZeros(occupied);
+        int job = queues[queueNumber].removeFirst();
+        if (queues[queueNumber].isEmpty())
+            occupied &= ~(1L << queueNumber);
+        return job;
+    }
+
+
+    private int timeSlice() {
+        if (policy == Scheduler.ROUND_ROBIN)
+            return quantum;
+        int slice = policy == Scheduler.FEEDBACK && !readyQueueEmpty() ? quanta[queueNumber] : untilNextAdmission();
+        // feedback: the slice ends at the next boost at the latest, see FeedbackScheduler
+        if (policy == Scheduler.FEEDBACK && boostPeriod > 0)
+            slice = (int) Math.min(slice, nextBoost - frame);
+        return slice;
+    }
+
+
+    private void preempt(int job) {
+        if (policy == Scheduler.SHORTEST_REMAINING_TIME) {
+            addToHeap(job);
+        }
+        else if (policy == Scheduler.ROUND_ROBIN) {
+            enqueue(0, job);
+        }
+        else {
+            // the same queue when alone, the next queue when competing, see FeedbackScheduler
+            boolean nextQueue = !readyQueueEmpty() ||
+                    (next < store.size() && store.getArrivalTime(next) == frame);
+            int level = nextQueue ? Math.min(queueNumber + 1, queues.length - 1) : queueNumber;
+            enqueue(level, job);
+        }
+    }
+
+
+    /*
+     * remaining time in the high bits, ties in the order jobs were added
+     */
+    private void addToHeap(int job) {
+        heap.add(((long) store.getRemainingTime(job) << 32) | (added++ & 0xFFFFFFFFL), job);
+    }
+}
@@ -0,0 +1,132 @@
+package schedulers;
+
+import driver.Job;
+import driver.JobStore;
+import driver.Trace;
+
+
+/***
+ * class: schedulers.IndexScheduler
+ * abstract class for schedulers that run the rows of a JobStore
+ * instead of Job objects, they make the same decisions as the Job based
+ * scheduler of the same policy, with primitive queues of row indices,
+ * and record start and completion times in the store and the metrics instead of a chart
+ */
+public abstract class IndexScheduler {
+    JobStore store;                                   // jobs to run, by arrival time
+    int policy;                                       // one of the policies of Scheduler
+    int frame;                                        // start time of the next job
+    long decisions;                                   // number of times a job was selected
+    Metrics metrics = new Metrics();                  // results of the finished jobs
+    SwitchCost switchCost = SwitchCost.NONE;          // time lost switching to another job
+    int lastJob;                                      // row that ran last, -1 before the first
+    int[] lastEnd;                                    // end of the last slice of each row, with a cache penalty
+
+
+    IndexScheduler(JobStore store, int policy) {
+        this.store = store;
+        this.policy = policy;
+    }
+
+
+    /***
+     * method: of
+     * create the scheduler of a policy
+     * @param store: jobs to run
+     * @param policy: Scheduler.FIRST_COME_FIRST_SERVE to Scheduler.FEEDBACK
+     * @param quantum: quantum of round robin, ignored by other policies
+     * @return the scheduler
+     */
+    public static IndexScheduler of(JobStore store, int policy, int quantum) {
+        switch (policy) {
+            case Scheduler.FIRST_COME_FIRST_SERVE:
+            case Scheduler.SHORTEST_PROCESS_NEXT:
+            case Scheduler.HIGHEST_RESPONSE_RATIO_NEXT:
+                return new IndexNonpreemptiveScheduler(store, policy);
+            case Scheduler.ROUND_ROBIN:
+            case Scheduler.SHORTEST_REMAINING_TIME:
+            case Scheduler.FEEDBACK:
+                return new IndexPreemptiveScheduler(store, policy, quantum);
+            default:
+                throw new IllegalArgumentException("unknown policy: " + policy);
+        }
+    }
+
+
+    public JobStore getStore() {
+        return store;
+    }
+
+    public int getFrame() {
+        return frame;
+    }
+
+    public long getDecisions() {
+        return decisions;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public SwitchCost getSwitchCost() {
+        return switchCost;
+    }
+
+    /***
+     * method: setSwitchCost
+     * @param switchCost: time lost on every dispatch of another job than the last one, SwitchCost.NONE by default
+     */
+    public void setSwitchCost(SwitchCost switchCost) {
+        this.switchCost = switchCost;
+    }
+
+
+    /***
+     * method: complete
+     * record the metrics of a finished row
+     * @param job: row of the finished job
+     */
+    void complete(int job) {
+        metrics.record(store.getArrivalTime(job), store.getDuration(job),
+                store.getStartTime(job), store.getCompletionTime(job));
+        int deadline = store.getAttribute(Trace.DEADLINE, job);
+        if (deadline != Job.NO_DEADLINE)
+            metrics.recordDeadline(deadline, store.getCompletionTime(job));
+    }
+
+
+    /***
+     * method: resetSwitches
+     * forget the last row and the slices of the rows before a run
+     */
+    void resetSwitches() {
+        lastJob = -1;
+        lastEnd = switchCost.hasPenalty() ? new int[store.size()] : null;
+    }
+
+
+    /***
+     * method: switchTo
+     * count the switch to a dispatched row, like Scheduler.switchTo
+     * @param job: the dispatched row, about to run at the frame
+     * @return time the cpu spends switching before the row runs, 0 if it ran last
+     */
+    int switchTo(int job) {
+        if (job == lastJob)
+            return 0;
+        lastJob = job;
+        int time = switchCost.of(lastEnd == null || store.getStartTime(job) == JobStore.NOT_STARTED
+                ? -1 : frame - lastEnd[job]);
+        metrics.recordSwitch(time);
+        return time;
+    }
+
+
+    /***
+     * method: run
+     * reset the store and run every job to its completion
+     */
+    public abstract void run();
+
+}
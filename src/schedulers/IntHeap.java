@@ -0,0 +1,131 @@
+package schedulers;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+
+/***
+ * class: schedulers.IntHeap
+ * binary min-heap of job indices ordered by a long key,
+ * callers pack the priority in the high bits and a tie breaker in the low bits,
+ * so the heap compares primitives only
+ */
+class IntHeap {
+    private long[] keys;                // heap ordered keys
+    private int[] values;               // job index of each key
+    private int size;                   // number of entries
+
+
+    IntHeap() {
+        keys = new long[16];
+        values = new int[16];
+    }
+
+
+    void add(long key, int value) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+
+        // sift up, moving parents down into the hole
+        int position = size++;
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (keys[parent] <= key)
+                break;
+            keys[position] = keys[parent];
+            values[position] = values[parent];
+            position = parent;
+        }
+        keys[position] = key;
+        values[position] = value;
+    }
+
+
+    /***
+     * method: peek
+     * @return the value with the lowest key
+     */
+    int peek() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        return values[0];
+    }
+
+
+    /***
+     * method: poll
+     * remove and return the value with the lowest key
+     * @return the value
+     */
+    int poll() {
+        int value = peek();
+        size--;
+        long key = keys[size];
+        int last = values[size];
+
+        // sift the last entry down from the root, moving children up into the hole
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && keys[child + 1] < keys[child])
+                child++;
+            if (key <= keys[child])
+                break;
+            keys[position] = keys[child];
+            values[position] = values[child];
+            position = child;
+        }
+        keys[position] = key;
+        values[position] = last;
+        return value;
+    }
+
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+
+    /***
+     * method: write
+     * write the entries in heap order, so the heap read back polls them the same way, see Snapshot
+     * @param out: where to write
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(keys[i]);
+            out.writeInt(values[i]);
+        }
+    }
+
+
+    /***
+     * method: read
+     * replace the entries by the ones written by write
+     * @param in: where to read
+     */
+    void read(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0)
+            throw new IOException("corrupt heap size: " + count);
+        keys = new long[Math.max(count, 16)];
+        values = new int[keys.length];
+        for (int i = 0; i < count; i++) {
+            keys[i] = in.readLong();
+            values[i] = in.readInt();
+        }
+        size = count;
+    }
+}
@@ -0,0 +1,93 @@
+package schedulers;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+
+/***
+ * class: schedulers.IntQueue
+ * first in first out queue of job indices in a growable ring buffer
+ */
+class IntQueue {
+    private int[] elements;             // ring buffer, length is a power of 2
+    private int head;                   // position of the first index
+    private int size;                   // number of indices in the queue
+
+
+    IntQueue() {
+        elements = new int[16];
+    }
+
+
+    void addLast(int index) {
+        if (size == elements.length)
+            grow();
+        elements[(head + size) & (elements.length - 1)] = index;
+        size++;
+    }
+
+
+    /***
+     * method: addBeforeLast
+     * insert an index just before the last one, or at the end if the queue is empty
+     * @param index: index to add
+     */
+    void addBeforeLast(int index) {
+        if (size == 0) {
+            addLast(index);
+            return;
+        }
+        int last = removeLast();
+        addLast(index);
+        addLast(last);
+    }
+
+
+    int removeFirst() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        int index = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return index;
+    }
+
+
+    int removeLast() {
+        if (size == 0)
+            throw new NoSuchElementException();
+        size--;
+        return elements[(head + size) & (elements.length - 1)];
+    }
+
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+
+    /***
+     * method: write
+     * write the size then the indices from the first, see Snapshot
+     * @param out: where to write
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++)
+            out.writeInt(elements[(head + i) & (elements.length - 1)]);
+    }
+
+
+    private void grow() {
+        int[] grown = new int[elements.length * 2];
+        for (int i = 0; i < size; i++)
+            grown[i] = elements[(head + i) & (elements.length - 1)];
+        elements = grown;
+        head = 0;
+    }
+}
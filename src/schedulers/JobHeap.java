@@ -0,0 +1,186 @@
+package schedulers;
+
+import driver.Job;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+
+/***
+ * class: schedulers.JobHeap
+ * binary min-heap of jobs with O(log n) add, poll and remove,
+ * jobs with the same priority come out in the order they were added
+ */
+class JobHeap implements ReadyQueue {
+    private Job[] heap;                                 // heap ordered jobs
+    private long[] order;                               // insertion order of each heap entry
+    private int size;                                   // number of jobs in the heap
+    private long added;                                 // number of jobs ever added
+    private final Comparator<Job> comparator;           // priority of the jobs
+    private final IdentityHashMap<Job, Integer> index;  // position of each job in the heap
+
+
+    /***
+     * constructor
+     * create an empty heap
+     * @param comparator: priority of the jobs, lower comes first
+     */
+    JobHeap(Comparator<Job> comparator) {
+        this.comparator = comparator;
+        heap = new Job[16];
+        order = new long[16];
+        index = new IdentityHashMap<>();
+    }
+
+
+    @Override
+    public void add(Job job) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+            order = Arrays.copyOf(order, size * 2);
+        }
+        heap[size] = job;
+        order[size] = added++;
+        index.put(job, size);
+        siftUp(size++);
+    }
+
+
+    @Override
+    public boolean remove(Job job) {
+        Integer position = index.get(job);
+        if (position == null) {
+            return false;
+        }
+        removeAt(position);
+        return true;
+    }
+
+
+    @Override
+    public Job peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+
+    @Override
+    public Job poll() {
+        if (size == 0) {
+            return null;
+        }
+        Job job = heap[0];
+        removeAt(0);
+        return job;
+    }
+
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+
+    /***
+     * method: clear
+     * remove every job, the insertion order starts again
+     */
+    void clear() {
+        Arrays.fill(heap, 0, size, null);
+        index.clear();
+        size = 0;
+        added = 0;
+    }
+
+
+    /***
+     * method: copyTo
+     * add the jobs of the heap to a list, in the order they would come out
+     * @param jobs: the list
+     */
+    void copyTo(List<Job> jobs) {
+        Integer[] positions = new Integer[size];
+        for (int i = 0; i < size; i++)
+            positions[i] = i;
+        Arrays.sort(positions, (i, j) -> less(i, j) ? -1 : less(j, i) ? 1 : 0);
+        for (int position : positions)
+            jobs.add(heap[position]);
+    }
+
+
+    /***
+     * method: removeAt
+     * replace the job at a position by the last job and restore the heap order
+     * @param position: position of the job to remove
+     */
+    private void removeAt(int position) {
+        index.remove(heap[position]);
+        size--;
+
+        if (position < size) {
+            move(size, position);
+            siftDown(position);
+            siftUp(position);
+        }
+        heap[size] = null;
+    }
+
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!less(position, parent)) {
+                break;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+
+    private void siftDown(int position) {
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && less(child + 1, child)) {
+                child++;
+            }
+            if (!less(child, position)) {
+                break;
+            }
+            swap(position, child);
+            position = child;
+        }
+    }
+
+
+    /*
+     * compare by priority, then by insertion order
+     */
+    private boolean less(int i, int j) {
+        int compare = comparator.compare(heap[i], heap[j]);
+        return compare < 0 || (compare == 0 && order[i] < order[j]);
+    }
+
+
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        order[to] = order[from];
+        index.put(heap[to], to);
+    }
+
+
+    private void swap(int i, int j) {
+        Job job = heap[i];
+        long jobOrder = order[i];
+        heap[i] = heap[j];
+        order[i] = order[j];
+        heap[j] = job;
+        order[j] = jobOrder;
+        index.put(heap[i], i);
+        index.put(heap[j], j);
+    }
+}
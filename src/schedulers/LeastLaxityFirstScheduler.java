@@ -0,0 +1,59 @@
+package schedulers;
+
+import driver.Job;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+
+
+/***
+ * class: schedulers.LeastLaxityFirstScheduler
+ * Choose the job with the least laxity, the time it can still wait:
+ * deadline - now - remaining time.
+ * The laxity of every waiting job shrinks at the same rate, so waiting jobs keep their order
+ * and the heap is keyed on deadline - remaining time.
+ * The laxity of the running job does not shrink, so it runs until a waiting job
+ * has strictly less laxity, or a new job arrives.
+ */
+public class LeastLaxityFirstScheduler extends DeadlineScheduler {
+
+    public LeastLaxityFirstScheduler(LinkedList<Job> jobs) {
+        super(jobs, Comparator.comparingLong(LeastLaxityFirstScheduler::laxity));
+    }
+
+    public LeastLaxityFirstScheduler(Iterator<Job> jobs) {
+        super(jobs, Comparator.comparingLong(LeastLaxityFirstScheduler::laxity));
+    }
+
+
+    @Override
+    public void run() {
+        out.println(getAdmissionControl()
+                ? "LeastLaxityFirstScheduler (with admission control):"
+                : "LeastLaxityFirstScheduler:");
+        super.run();
+    }
+
+
+    /*
+     * laxity + now, the same for every waiting job
+     */
+    private static long laxity(Job job) {
+        return (long) job.getDeadline() - job.getRemainingTime();
+    }
+
+
+    /*
+     * the running job gains one unit of laxity over the head of the heap per time unit,
+     * it is preempted once it has strictly more
+     */
+    @Override
+    int timeSlice(Job job) {
+        Job next = peekRealTime();
+        if (!isRealTime() || next == null)
+            return untilNextAdmission();
+        return (int) Math.min(untilNextAdmission(), laxity(next) - laxity(job) + 1);
+    }
+
+}
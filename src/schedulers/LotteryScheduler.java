@@ -0,0 +1,159 @@
+package schedulers;
+
+import driver.Job;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+
+/***
+ * class: schedulers.LotteryScheduler
+ * Proportional share scheduling by lottery.
+ * Every quantum a ticket is drawn among the tickets of the runnable jobs,
+ * and the job holding it runs, so on average each job gets a share of the cpu
+ * proportional to its tickets.
+ * The tickets are held in a Fenwick tree, so each draw costs O(log n).
+ * The draws come from a seeded generator, so a run can be repeated.
+ */
+public class LotteryScheduler extends PreemptiveScheduler {
+    public static final long DEFAULT_SEED = 1;
+
+    private final int quantum;
+    private final long seed;
+    private Random random;
+    private TicketTree tree = new TicketTree();          // tickets of the runnable jobs
+    private Job[] slots = new Job[16];                   // job of each slot of the tree
+    private int current;                                 // slot of the running job
+
+
+    public LotteryScheduler(LinkedList<Job> jobs, int quantum) {
+        this(jobs, quantum, DEFAULT_SEED);
+    }
+
+    /***
+     * constructor
+     * @param jobs: list of jobs
+     * @param quantum: time between two draws
+     * @param seed: seed of the draws
+     */
+    public LotteryScheduler(LinkedList<Job> jobs, int quantum, long seed) {
+        super(jobs);
+        this.quantum = quantum;
+        this.seed = seed;
+    }
+
+    public LotteryScheduler(Iterator<Job> jobs, int quantum) {
+        this(jobs, quantum, DEFAULT_SEED);
+    }
+
+    public LotteryScheduler(Iterator<Job> jobs, int quantum, long seed) {
+        super(jobs);
+        this.quantum = quantum;
+        this.seed = seed;
+    }
+
+
+    @Override
+    public void run() {
+        out.printf("LotteryScheduler (with quantum = %d):", quantum);
+        super.run();
+    }
+
+
+    @Override
+    void reset() {
+        random = new Random(seed);
+        tree = new TicketTree();
+        slots = new Job[16];
+
+        // sort the list of jobs by the arrival time
+        listOfJobs.sort(Comparator.comparingInt(Job::getArrivalTime));
+    }
+
+
+    @Override
+    void readyJobs(List<Job> jobs) {
+        // the running job keeps its tickets in the tree, the draw decides which job runs next
+        for (Job job : slots) {
+            if (job != null && job != getRunningJob())
+                jobs.add(job);
+        }
+    }
+
+
+    @Override
+    boolean readyQueueEmpty() {
+        return tree.size() == 0;
+    }
+
+
+    @Override
+    void admit(Job job) {
+        int slot = tree.add(job.getTickets());
+        if (slot == slots.length)
+            slots = Arrays.copyOf(slots, slots.length * 2);
+        slots[slot] = job;
+    }
+
+
+    /*
+     * the running job stays in the tree, so it takes part in the next draw
+     */
+    @Override
+    Job dispatch() {
+        current = tree.find(draw(tree.getTotal()));
+        return slots[current];
+    }
+
+
+    /***
+     * method: draw
+     * a uniform ticket from 0 to bound - 1, drawing again the values of the last partial
+     * range of 63 bits so every ticket is as likely
+     * @param bound: total number of tickets, positive
+     * @return the ticket
+     */
+    private long draw(long bound) {
+        long bits;
+        long ticket;
+        do {
+            bits = random.nextLong() >>> 1;
+            ticket = bits % bound;
+        } while (bits - ticket + (bound - 1) < 0);
+        return ticket;
+    }
+
+
+    @Override
+    int timeSlice(Job job) {
+        return quantum;
+    }
+
+
+    @Override
+    void preempt(Job job) {
+    }
+
+
+    @Override
+    void complete(Job job) {
+        tree.remove(current);
+        slots[current] = null;
+        super.complete(job);
+    }
+
+
+    /*
+     * a blocked job gives its tickets back until its i/o ends
+     */
+    @Override
+    void block(Job job) {
+        tree.remove(current);
+        slots[current] = null;
+    }
+
+}
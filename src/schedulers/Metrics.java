@@ -0,0 +1,437 @@
+package schedulers;
+
+import driver.Job;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.PrintStream;
+
+
+/***
+ * class: schedulers.Metrics
+ * per job and aggregate results of a run, updated once per finished job
+ * so they cost O(1) per job and a few KB whatever the number of jobs
+ *
+ * per job: turnaround = completion - arrival, waiting = turnaround - duration - time in i/o,
+ * response = first start - arrival, normalized turnaround = turnaround / duration
+ * aggregates: mean, max and p50/p95/p99 of each, from a QuantileSketch,
+ * throughput and cpu utilization from the first arrival to the last completion,
+ * the utilization of several cpus is their average
+ *
+ * jobs with a deadline also give their tardiness = max(0, completion - deadline),
+ * a job misses its deadline when its tardiness is positive
+ *
+ * a switch is a dispatch of another job than the one the cpu ran last,
+ * its time, see SwitchCost, is part of the makespan but not of the busy time
+ *
+ * jobs with i/o bursts also give the time some job was in i/o, the union of their i/o bursts,
+ * and the overlap, the part of it during which the cpu was running a job
+ */
+public class Metrics {
+    // per job metrics
+    public static final int TURNAROUND = 0;
+    public static final int WAITING = 1;
+    public static final int RESPONSE = 2;
+    public static final int NORMALIZED_TURNAROUND = 3;
+    public static final int COUNT = 4;                // number of per job metrics
+    private static final String[] NAMES = {"turnaround", "waiting", "response", "normalized"};
+
+    private static final double SCALE = 1000;         // normalized turnaround is sketched in thousandths
+
+    private final QuantileSketch[] sketches;          // distribution of each metric
+    private final long[] sums;                        // sum of each whole metric
+    private double normalizedSum;                     // sum of the normalized turnarounds
+    private long count;                               // number of finished jobs
+    private long busyTime;                            // time the cpus ran jobs
+    private int cpus = 1;                             // number of cpus of the run
+    private long firstArrival = Long.MAX_VALUE;       // earliest arrival of a finished job
+    private long lastCompletion = Long.MIN_VALUE;     // latest completion
+    private final QuantileSketch tardiness = new QuantileSketch(); // tardiness of the jobs with a deadline
+    private long tardinessSum;                        // sum of the tardiness
+    private long deadlines;                           // finished jobs with a deadline
+    private long misses;                              // finished jobs past their deadline
+    private long admissionFailures;                   // jobs over the utilization bound when admitted
+    private long switches;                            // dispatches of another job than the last one
+    private long switchTime;                          // time the cpus spent switching
+    private long ioTime;                              // sum of the i/o bursts
+    private long ioActiveTime;                        // time at least one job was in i/o
+    private long overlapTime;                         // time the cpu ran a job while another was in i/o
+    private long ioEnd = Long.MIN_VALUE;              // end of the latest i/o burst so far
+
+
+    public Metrics() {
+        sketches = new QuantileSketch[COUNT];
+        sums = new long[COUNT];
+        for (int i = 0; i < COUNT; i++)
+            sketches[i] = new QuantileSketch();
+    }
+
+
+    /***
+     * method: record
+     * add a finished job
+     * @param job: a job that ran to its completion
+     */
+    public void record(Job job) {
+        record(job.getArrivalTime(), job.getDuration(), job.getIoTime(), job.getStartTime(), job.getCompletionTime());
+        if (job.hasDeadline())
+            recordDeadline(job.getDeadline(), job.getCompletionTime());
+    }
+
+
+    /***
+     * method: record
+     * add a finished job
+     * @param arrival: arrival time
+     * @param duration: duration
+     * @param start: time the job first ran
+     * @param completion: time the job finished
+     */
+    public void record(int arrival, int duration, int start, int completion) {
+        record(arrival, duration, 0, start, completion);
+    }
+
+
+    /***
+     * method: record
+     * add a finished job that spent some time in i/o
+     * @param io: time the job was blocked in i/o
+     */
+    public void record(int arrival, int duration, int io, int start, int completion) {
+        long turnaround = (long) completion - arrival;
+        add(TURNAROUND, turnaround);
+        add(WAITING, turnaround - duration - io);
+        add(RESPONSE, (long) start - arrival);
+
+        double normalized = normalizedTurnaround(turnaround, duration);
+        normalizedSum += normalized;
+        sketches[NORMALIZED_TURNAROUND].add((long) (normalized * SCALE + 0.5));
+
+        count++;
+        busyTime += duration;
+        firstArrival = Math.min(firstArrival, arrival);
+        lastCompletion = Math.max(lastCompletion, completion);
+    }
+
+
+    /***
+     * method: recordDeadline
+     * add the tardiness of a finished job with a deadline, after record
+     * @param deadline: time the job had to finish by
+     * @param completion: time the job finished
+     */
+    public void recordDeadline(int deadline, int completion) {
+        long late = Math.max(0, (long) completion - deadline);
+        tardinessSum += late;
+        tardiness.add(late);
+        deadlines++;
+        if (late > 0)
+            misses++;
+    }
+
+
+    /***
+     * method: recordAdmissionFailure
+     * count a job whose deadline could not be guaranteed when it was admitted
+     */
+    public void recordAdmissionFailure() {
+        admissionFailures++;
+    }
+
+
+    /***
+     * method: recordSwitch
+     * count a dispatch of another job than the one the cpu ran last
+     * @param time: time the cpu spent switching
+     */
+    public void recordSwitch(int time) {
+        switches++;
+        switchTime += time;
+    }
+
+
+    /***
+     * method: recordIo
+     * add an i/o burst, i/o bursts are recorded by start time
+     * @param start: time the burst starts
+     * @param length: time of the burst
+     */
+    public void recordIo(int start, int length) {
+        ioTime += length;
+        long end = (long) start + length;
+        if (end > ioEnd) {
+            // the bursts so far started before this one, so their union ends at ioEnd
+            ioActiveTime += end - Math.max(start, ioEnd);
+            ioEnd = end;
+        }
+    }
+
+
+    /***
+     * method: recordRun
+     * add a slice of a job, to measure its overlap with the i/o bursts recorded before it started
+     * @param start: time the slice starts
+     * @param length: time of the slice
+     */
+    public void recordRun(int start, int length) {
+        if (ioEnd > start)
+            overlapTime += Math.min(length, ioEnd - start);
+    }
+
+
+    private void add(int metric, long value) {
+        sums[metric] += value;
+        sketches[metric].add(value);
+    }
+
+
+    /***
+     * method: write
+     * write every accumulated value, see Snapshot,
+     * but the i/o times, snapshots are only taken of runs without i/o
+     * @param out: where to write
+     */
+    void write(DataOutput out) throws IOException {
+        for (int metric = 0; metric < COUNT; metric++) {
+            out.writeLong(sums[metric]);
+            sketches[metric].write(out);
+        }
+        out.writeDouble(normalizedSum);
+        out.writeLong(count);
+        out.writeLong(busyTime);
+        out.writeInt(cpus);
+        out.writeLong(firstArrival);
+        out.writeLong(lastCompletion);
+        tardiness.write(out);
+        out.writeLong(tardinessSum);
+        out.writeLong(deadlines);
+        out.writeLong(misses);
+        out.writeLong(admissionFailures);
+        out.writeLong(switches);
+        out.writeLong(switchTime);
+    }
+
+
+    /***
+     * method: read
+     * replace the accumulated values by the ones written by write
+     * @param in: where to read
+     */
+    void read(DataInput in) throws IOException {
+        for (int metric = 0; metric < COUNT; metric++) {
+            sums[metric] = in.readLong();
+            sketches[metric].read(in);
+        }
+        normalizedSum = in.readDouble();
+        count = in.readLong();
+        busyTime = in.readLong();
+        cpus = in.readInt();
+        firstArrival = in.readLong();
+        lastCompletion = in.readLong();
+        tardiness.read(in);
+        tardinessSum = in.readLong();
+        deadlines = in.readLong();
+        misses = in.readLong();
+        admissionFailures = in.readLong();
+        switches = in.readLong();
+        switchTime = in.readLong();
+    }
+
+
+    /***
+     * method: normalizedTurnaround
+     * @return turnaround / duration, or 1 for a job without duration
+     */
+    public static double normalizedTurnaround(long turnaround, int duration) {
+        return duration > 0 ? (double) turnaround / duration : 1;
+    }
+
+
+    /***
+     * method: getName
+     * @param metric: TURNAROUND, WAITING, RESPONSE or NORMALIZED_TURNAROUND
+     * @return short name of the metric
+     */
+    public static String getName(int metric) {
+        return NAMES[metric];
+    }
+
+    /***
+     * method: setCpus
+     * @param cpus: number of cpus sharing the busy time, 1 by default
+     */
+    public void setCpus(int cpus) {
+        this.cpus = cpus;
+    }
+
+    public int getCpus() {
+        return cpus;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean(int metric) {
+        if (count == 0)
+            return 0;
+        if (metric == NORMALIZED_TURNAROUND)
+            return normalizedSum / count;
+        return (double) sums[metric] / count;
+    }
+
+
+    /***
+     * method: getQuantile
+     * @param metric: TURNAROUND, WAITING, RESPONSE or NORMALIZED_TURNAROUND
+     * @param q: a fraction between 0 and 1, e.g. 0.99 for p99
+     * @return the quantile, within 0.2%
+     */
+    public double getQuantile(int metric, double q) {
+        return unscale(metric, sketches[metric].quantile(q));
+    }
+
+    public double getMax(int metric) {
+        return count == 0 ? 0 : unscale(metric, sketches[metric].getMax());
+    }
+
+    public long getDeadlines() {
+        return deadlines;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getAdmissionFailures() {
+        return admissionFailures;
+    }
+
+    /***
+     * method: getMissRate
+     * @return fraction of the jobs with a deadline that missed it
+     */
+    public double getMissRate() {
+        return deadlines == 0 ? 0 : (double) misses / deadlines;
+    }
+
+    public double getTardinessMean() {
+        return deadlines == 0 ? 0 : (double) tardinessSum / deadlines;
+    }
+
+    public double getTardinessQuantile(double q) {
+        return tardiness.quantile(q);
+    }
+
+    public double getTardinessMax() {
+        return deadlines == 0 ? 0 : tardiness.getMax();
+    }
+
+    public long getSwitches() {
+        return switches;
+    }
+
+    public long getSwitchTime() {
+        return switchTime;
+    }
+
+    /***
+     * method: getSwitchFraction
+     * @return fraction of the time of the cpus spent switching over the makespan
+     */
+    public double getSwitchFraction() {
+        return getMakespan() == 0 ? 0 : (double) switchTime / getMakespan() / cpus;
+    }
+
+    public long getIoTime() {
+        return ioTime;
+    }
+
+    public long getIoActiveTime() {
+        return ioActiveTime;
+    }
+
+    /***
+     * method: getIoFraction
+     * @return fraction of the makespan during which at least one job was in i/o
+     */
+    public double getIoFraction() {
+        return getMakespan() == 0 ? 0 : (double) ioActiveTime / getMakespan();
+    }
+
+    /***
+     * method: getOverlap
+     * @return fraction of the time some job was in i/o during which the cpu was running a job
+     */
+    public double getOverlap() {
+        return ioActiveTime == 0 ? 0 : (double) overlapTime / ioActiveTime;
+    }
+
+    private static double unscale(int metric, long value) {
+        return metric == NORMALIZED_TURNAROUND ? value / SCALE : value;
+    }
+
+
+    /***
+     * method: getMakespan
+     * @return time from the first arrival to the last completion
+     */
+    public long getMakespan() {
+        return count == 0 ? 0 : lastCompletion - firstArrival;
+    }
+
+    /***
+     * method: getThroughput
+     * @return finished jobs per time unit over the makespan
+     */
+    public double getThroughput() {
+        return getMakespan() == 0 ? 0 : (double) count / getMakespan();
+    }
+
+    /***
+     * method: getUtilization
+     * @return fraction of the makespan the cpus were running jobs
+     */
+    public double getUtilization() {
+        return getMakespan() == 0 ? 0 : (double) busyTime / getMakespan() / cpus;
+    }
+
+
+    /***
+     * method: print
+     * print the aggregates as a table
+     * @param out: where to print
+     */
+    public void print(PrintStream out) {
+        out.printf("jobs %d, makespan %d, throughput %.3f jobs/unit, utilization %.1f%%%n",
+                count, getMakespan(), getThroughput(), 100 * getUtilization());
+        if (switchTime > 0)
+            out.printf("switches %d, switching %d (%.1f%% of the cpu time)%n",
+                    switches, switchTime, 100 * getSwitchFraction());
+        if (ioTime > 0)
+            out.printf("i/o %d, some job in i/o %d (%.1f%% of the makespan), overlapping the cpu %.1f%%%n",
+                    ioTime, ioActiveTime, 100 * getIoFraction(), 100 * getOverlap());
+        out.printf("%-12s %10s %10s %10s %10s %10s%n", "", "mean", "p50", "p95", "p99", "max");
+        for (int metric = 0; metric < COUNT; metric++) {
+            out.printf("%-12s %10.2f %10s %10s %10s %10s%n", NAMES[metric], getMean(metric),
+                    format(getQuantile(metric, 0.50)), format(getQuantile(metric, 0.95)),
+                    format(getQuantile(metric, 0.99)), format(getMax(metric)));
+        }
+        if (deadlines > 0) {
+            out.printf("%-12s %10.2f %10s %10s %10s %10s%n", "tardiness", getTardinessMean(),
+                    format(getTardinessQuantile(0.50)), format(getTardinessQuantile(0.95)),
+                    format(getTardinessQuantile(0.99)), format(getTardinessMax()));
+            out.printf("deadlines %d, missed %d (%.1f%%), admission failures %d%n",
+                    deadlines, misses, 100 * getMissRate(), admissionFailures);
+        }
+    }
+
+
+    /*
+     * whole numbers without decimals
+     */
+    static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.format("%.2f", value);
+    }
+}
@@ -0,0 +1,554 @@
+package schedulers;
+
+import driver.JobStore;
+
+import java.util.Arrays;
+
+
+/***
+ * class: schedulers.MultiprocessorScheduler
+ * Round Robin, Shortest Remaining Time and Feedback on several cpus, on the rows of a store.
+ * Every cpu runs one job at a time, either from a global queue shared by every cpu
+ * or from its own run queue. With run queues per cpu, an arriving job goes to the least loaded cpu
+ * and the queues are balanced by:
+ *      work stealing: an idle cpu with an empty queue takes a waiting job from the busiest queue
+ *      periodic migration: once per period, waiting jobs move from the busiest queues
+ *          to the least loaded ones until no two loads differ by more than one
+ *
+ * the same event driven engine as IndexPreemptiveScheduler, at each event time
+ * the slices that end are completed or preempted, arrived jobs are admitted if a cpu is idle
+ * (busy cpus admit arrived jobs at their next slice end),
+ * the queues are balanced, then every idle cpu dispatches the next job of its queue,
+ * so on one cpu the decisions are those of IndexPreemptiveScheduler
+ */
+public class MultiprocessorScheduler extends IndexScheduler {
+    public static final int GLOBAL_QUEUE = 1;
+    public static final int WORK_STEALING = 2;
+    public static final int PERIODIC_MIGRATION = 3;
+    private static final String[] BALANCE_NAMES = {"global", "steal", "migrate"};
+
+    private final int cpus;                            // number of cpus
+    private final int balance;                         // GLOBAL_QUEUE, WORK_STEALING or PERIODIC_MIGRATION
+    private final int quantum;                         // round robin quantum
+    private final int[] quanta;                        // slice of each feedback queue
+    private final int boostPeriod;                     // feedback: time between two boosts, 0 for none
+    private int migrationPeriod = 10;                  // time between two periodic migrations
+
+    private RunQueue[] runQueues;                      // one per cpu, or one shared by every cpu
+    private int[] running;                             // job running on each cpu, -1 when idle
+    private int[] until;                               // end of the slice running on each cpu
+    private int[] levels;                              // feedback queue of each job, -1 when boosted while running
+    private int[] lastCpu;                             // cpu each job last ran on, -1 before its first slice
+    private int[] lastJobs;                            // job each cpu ran last, -1 before the first
+    private long[] busyTime;                           // time each cpu ran jobs
+    private long[] dispatches;                         // slices dispatched on each cpu
+    private long[] migrationsIn;                       // slices dispatched on each cpu after running on another
+    private long migrations;                           // slices dispatched on another cpu than the last one
+    private int next;                                  // first row not admitted yet
+    private int lastAdmission;                         // time the last job was admitted
+    private long nextBoost;                            // feedback: time of the next boost
+    private long nextMigration;                        // time of the next periodic migration
+    private long added;                                // jobs added to shortest remaining time heaps, breaks ties
+
+
+    /***
+     * constructor
+     * @param store: jobs to run
+     * @param policy: ROUND_ROBIN, SHORTEST_REMAINING_TIME or FEEDBACK with 3 queues of 1
+     * @param quantum: quantum of round robin
+     * @param cpus: number of cpus
+     * @param balance: GLOBAL_QUEUE, WORK_STEALING or PERIODIC_MIGRATION
+     */
+    public MultiprocessorScheduler(JobStore store, int policy, int quantum, int cpus, int balance) {
+        this(store, policy, quantum, new int[] {1, 1, 1}, 0, cpus, balance);
+    }
+
+
+    /***
+     * constructor
+     * feedback with one queue per slice and a periodic boost, see FeedbackScheduler
+     * @param store: jobs to run
+     * @param quanta: slice of each queue, from the highest priority
+     * @param boostPeriod: time between two moves of every job to the highest queue, 0 for none
+     * @param cpus: number of cpus
+     * @param balance: GLOBAL_QUEUE, WORK_STEALING or PERIODIC_MIGRATION
+     */
+    public MultiprocessorScheduler(JobStore store, int[] quanta, int boostPeriod, int cpus, int balance) {
+        this(store, Scheduler.FEEDBACK, 1, quanta, boostPeriod, cpus, balance);
+    }
+
+
+    private MultiprocessorScheduler(JobStore store, int policy, int quantum, int[] quanta, int boostPeriod,
+                                    int cpus, int balance) {
+        super(store, policy);
+        if (policy != Scheduler.ROUND_ROBIN && policy != Scheduler.SHORTEST_REMAINING_TIME
+                && policy != Scheduler.FEEDBACK)
+            throw new IllegalArgumentException("not a preemptive policy: " + policy);
+        if (cpus < 1)
+            throw new IllegalArgumentException("at least one cpu is needed: " + cpus);
+        if (balance < GLOBAL_QUEUE || balance > PERIODIC_MIGRATION)
+            throw new IllegalArgumentException("unknown load balancing: " + balance);
+        FeedbackScheduler.checkQueues(quanta, boostPeriod);
+
+        this.quantum = quantum;
+        this.quanta = quanta.clone();
+        this.boostPeriod = boostPeriod;
+        this.cpus = cpus;
+        this.balance = balance;
+    }
+
+
+    /***
+     * method: setMigrationPeriod
+     * @param migrationPeriod: time between two periodic migrations, 10 by default
+     */
+    public void setMigrationPeriod(int migrationPeriod) {
+        if (migrationPeriod < 1)
+            throw new IllegalArgumentException("the migration period must be positive: " + migrationPeriod);
+        this.migrationPeriod = migrationPeriod;
+    }
+
+
+    /***
+     * method: balanceNumber
+     * @param name: global, steal or migrate
+     * @return GLOBAL_QUEUE, WORK_STEALING or PERIODIC_MIGRATION
+     */
+    public static int balanceNumber(String name) {
+        int index = Arrays.asList(BALANCE_NAMES).indexOf(name);
+        if (index < 0)
+            throw new IllegalArgumentException("unknown load balancing: " + name);
+        return index + 1;
+    }
+
+
+    @Override
+    public void run() {
+        store.reset();
+        frame = 0;
+        decisions = 0;
+        metrics = new Metrics();
+        metrics.setCpus(cpus);
+        next = 0;
+        lastAdmission = -1;
+        added = 0;
+        migrations = 0;
+        nextBoost = boostPeriod;
+        nextMigration = migrationPeriod;
+
+        runQueues = new RunQueue[balance == GLOBAL_QUEUE ? 1 : cpus];
+        for (int i = 0; i < runQueues.length; i++)
+            runQueues[i] = new RunQueue();
+        running = new int[cpus];
+        Arrays.fill(running, -1);
+        until = new int[cpus];
+        busyTime = new long[cpus];
+        dispatches = new long[cpus];
+        migrationsIn = new long[cpus];
+        levels = new int[store.size()];
+        lastCpu = new int[store.size()];
+        Arrays.fill(lastCpu, -1);
+        lastJobs = new int[cpus];
+        Arrays.fill(lastJobs, -1);
+        resetSwitches();
+
+        while (true) {
+            // completion or preemption events
+            boolean idle = false;
+            for (int cpu = 0; cpu < cpus; cpu++) {
+                if (running[cpu] >= 0 && until[cpu] == frame)
+                    endSlice(cpu);
+                idle |= running[cpu] < 0;
+            }
+
+            // arrival events, only when a cpu can take a job
+            if (idle)
+                admitArrivals();
+
+            // boost every job before a dispatch once the period is over, like FeedbackScheduler
+            if (policy == Scheduler.FEEDBACK && boostPeriod > 0 && frame >= nextBoost && canDispatch())
+                boost();
+
+            balance();
+
+            for (int cpu = 0; cpu < cpus; cpu++) {
+                if (running[cpu] < 0 && !queueOf(cpu).isEmpty())
+                    dispatch(cpu);
+            }
+
+            // jump to the next slice end, migration, or admission when a cpu is idle,
+            // busy cpus admit arrived jobs at their next slice end, like IndexPreemptiveScheduler
+            long nextEvent = Long.MAX_VALUE;
+            idle = false;
+            for (int cpu = 0; cpu < cpus; cpu++) {
+                if (running[cpu] >= 0)
+                    nextEvent = Math.min(nextEvent, until[cpu]);
+                else
+                    idle = true;
+            }
+            if (next < store.size() && (idle || nextEvent == Long.MAX_VALUE))
+                nextEvent = Math.min(nextEvent, nextAdmission());
+            if (balance == PERIODIC_MIGRATION && waiting() > 0)
+                nextEvent = Math.min(nextEvent, nextMigration);
+            if (nextEvent == Long.MAX_VALUE)
+                break;
+            frame = (int) nextEvent;
+        }
+    }
+
+
+    /***
+     * method: nextAdmission
+     * time the next row gets admitted, at most one job is admitted per time unit,
+     * round robin admits every arrived job at once, like IndexPreemptiveScheduler
+     * @return the admission time of the next row
+     */
+    private int nextAdmission() {
+        return Math.max(store.getArrivalTime(next), lastAdmission + 1);
+    }
+
+
+    /*
+     * an arrived job goes to the global queue, or to the run queue of the least loaded cpu
+     */
+    private void admitArrivals() {
+        while (next < store.size() && nextAdmission() <= frame) {
+            if (policy != Scheduler.ROUND_ROBIN)
+                lastAdmission = nextAdmission();
+            store.setState(next, JobStore.READY);
+            runQueues[balance == GLOBAL_QUEUE ? 0 : leastLoaded()].admit(next++);
+        }
+    }
+
+
+    private RunQueue queueOf(int cpu) {
+        return runQueues[balance == GLOBAL_QUEUE ? 0 : cpu];
+    }
+
+
+    /*
+     * waiting jobs of the run queue of a cpu, and its running job
+     */
+    private int load(int cpu) {
+        return runQueues[cpu].size + (running[cpu] >= 0 ? 1 : 0);
+    }
+
+
+    private int leastLoaded() {
+        int least = 0;
+        for (int cpu = 1; cpu < cpus; cpu++) {
+            if (load(cpu) < load(least))
+                least = cpu;
+        }
+        return least;
+    }
+
+
+    private int waiting() {
+        int waiting = 0;
+        for (RunQueue queue : runQueues)
+            waiting += queue.size;
+        return waiting;
+    }
+
+
+    private boolean canDispatch() {
+        for (int cpu = 0; cpu < cpus; cpu++) {
+            if (running[cpu] < 0 && !queueOf(cpu).isEmpty())
+                return true;
+        }
+        return false;
+    }
+
+
+    /***
+     * method: balance
+     * work stealing: every idle cpu with an empty queue takes a job from the queue
+     * with the most jobs that its own cpu will not dispatch now
+     * periodic migration: at the end of each period, move jobs from the most
+     * to the least loaded cpu until their loads differ by at most one
+     */
+    private void balance() {
+        if (balance == WORK_STEALING) {
+            for (int cpu = 0; cpu < cpus; cpu++) {
+                if (running[cpu] >= 0 || !runQueues[cpu].isEmpty())
+                    continue;
+
+                int victim = -1;
+                int most = 0;
+                for (int other = 0; other < cpus; other++) {
+                    int spare = runQueues[other].size - (running[other] < 0 ? 1 : 0);
+                    if (spare > most) {
+                        victim = other;
+                        most = spare;
+                    }
+                }
+                if (victim < 0)
+                    return;
+                runQueues[cpu].add(runQueues[victim].steal());
+            }
+        }
+        else if (balance == PERIODIC_MIGRATION && frame >= nextMigration) {
+            while (true) {
+                int most = 0;
+                int least = 0;
+                for (int cpu = 1; cpu < cpus; cpu++) {
+                    if (load(cpu) > load(most))
+                        most = cpu;
+                    if (load(cpu) < load(least))
+                        least = cpu;
+                }
+                if (load(most) - load(least) < 2 || runQueues[most].isEmpty())
+                    break;
+                runQueues[least].add(runQueues[most].steal());
+            }
+            nextMigration = ((long) frame / migrationPeriod + 1) * migrationPeriod;
+        }
+    }
+
+
+    /***
+     * method: dispatch
+     * run the next job of the queue of a cpu until its completion or next preemption point
+     * @param cpu: an idle cpu
+     */
+    private void dispatch(int cpu) {
+        RunQueue queue = queueOf(cpu);
+        int job = queue.poll();
+        decisions++;
+        dispatches[cpu]++;
+        int start = frame + switchTo(cpu, job);
+        if (lastCpu[job] >= 0 && lastCpu[job] != cpu) {
+            migrations++;
+            migrationsIn[cpu]++;
+        }
+        lastCpu[job] = cpu;
+
+        store.setState(job, JobStore.RUNNING);
+        int slice = Math.min(store.getRemainingTime(job), Math.max(1, timeSlice(queue, job, start)));
+        store.run(job, start, slice);
+        busyTime[cpu] += slice;
+        running[cpu] = job;
+        until[cpu] = start + slice;
+        if (lastEnd != null)
+            lastEnd[job] = until[cpu];
+    }
+
+
+    /***
+     * method: switchTo
+     * count the switch of a cpu to a dispatched job, see SwitchCost,
+     * a job coming from another cpu has a cold cache
+     * @param cpu: the cpu
+     * @param job: the dispatched job, not moved to the cpu yet
+     * @return time the cpu spends switching before the job runs, 0 if it ran last on the cpu
+     */
+    private int switchTo(int cpu, int job) {
+        if (lastJobs[cpu] == job)
+            return 0;
+        lastJobs[cpu] = job;
+        int time = switchCost.of(lastEnd == null || lastCpu[job] != cpu ? -1 : frame - lastEnd[job]);
+        metrics.recordSwitch(time);
+        return time;
+    }
+
+
+    /*
+     * the same slices as IndexPreemptiveScheduler, competing jobs are those of the same queue,
+     * the job starts running after the switch
+     */
+    private int timeSlice(RunQueue queue, int job, int start) {
+        if (policy == Scheduler.ROUND_ROBIN)
+            return quantum;
+        int slice;
+        if (policy == Scheduler.FEEDBACK && !queue.isEmpty())
+            slice = quanta[levels[job]];
+        else
+            slice = next < store.size() ? nextAdmission() - start : Integer.MAX_VALUE;
+        if (policy == Scheduler.FEEDBACK && boostPeriod > 0)
+            slice = (int) Math.min(slice, nextBoost - start);
+        return slice;
+    }
+
+
+    private void endSlice(int cpu) {
+        int job = running[cpu];
+        running[cpu] = -1;
+        if (store.getRemainingTime(job) > 0) {
+            store.setState(job, JobStore.READY);
+            queueOf(cpu).preempt(job);
+        }
+        else {
+            queueOf(cpu).jobDone = true;
+            complete(job);
+        }
+    }
+
+
+    /*
+     * feedback: move every waiting job to the highest queue, running jobs go there when preempted
+     */
+    private void boost() {
+        for (RunQueue queue : runQueues)
+            queue.boost();
+        for (int cpu = 0; cpu < cpus; cpu++) {
+            if (running[cpu] >= 0)
+                levels[running[cpu]] = -1;
+        }
+        nextBoost = ((long) frame / boostPeriod + 1) * boostPeriod;
+    }
+
+
+    public int getCpus() {
+        return cpus;
+    }
+
+    public long getMigrations() {
+        return migrations;
+    }
+
+    public long getBusyTime(int cpu) {
+        return busyTime[cpu];
+    }
+
+    public long getDispatches(int cpu) {
+        return dispatches[cpu];
+    }
+
+
+    /***
+     * method: getUtilization
+     * @param cpu: a cpu
+     * @return fraction of the makespan the cpu was running a job
+     */
+    public double getUtilization(int cpu) {
+        long makespan = metrics.getMakespan();
+        return makespan == 0 ? 0 : (double) busyTime[cpu] / makespan;
+    }
+
+
+    /***
+     * class: RunQueue
+     * ready jobs of one cpu, or of every cpu with a global queue:
+     * a fifo queue for round robin, a heap of remaining times for shortest remaining time,
+     * and one fifo queue per level with an occupancy bitmap for feedback
+     */
+    private class RunQueue {
+        private final IntQueue[] queues;               // fifo queue, or one per feedback level
+        private final IntHeap heap;                    // shortest remaining time queue
+        private long occupied;                         // bit i is set when feedback queue i is not empty
+        int size;                                      // number of jobs waiting
+        boolean jobDone;                               // round robin: a job finished since the last admission
+
+        RunQueue() {
+            queues = new IntQueue[policy == Scheduler.FEEDBACK ? quanta.length : 1];
+            for (int i = 0; i < queues.length; i++)
+                queues[i] = new IntQueue();
+            heap = new IntHeap();
+        }
+
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+
+        /*
+         * a new job: round robin puts it before the last job of the queue
+         * unless the queue is empty or a job just finished, like RoundRobinScheduler
+         */
+        void admit(int job) {
+            if (policy == Scheduler.SHORTEST_REMAINING_TIME) {
+                add(job);
+            }
+            else if (policy == Scheduler.ROUND_ROBIN && !jobDone) {
+                queues[0].addBeforeLast(job);
+                occupied |= 1;
+                size++;
+            }
+            else {
+                levels[job] = 0;
+                add(job);
+                jobDone = false;
+            }
+        }
+
+
+        /*
+         * a job moved from another queue keeps its feedback level
+         */
+        void add(int job) {
+            if (policy == Scheduler.SHORTEST_REMAINING_TIME) {
+                heap.add(((long) store.getRemainingTime(job) << 32) | (added++ & 0xFFFFFFFFL), job);
+            }
+            else {
+                int level = policy == Scheduler.FEEDBACK ? levels[job] : 0;
+                queues[level].addLast(job);
+                occupied |= 1L << level;
+            }
+            size++;
+        }
+
+
+        /*
+         * feedback: the same queue when alone, the next queue when competing, see FeedbackScheduler
+         */
+        void preempt(int job) {
+            if (policy == Scheduler.FEEDBACK) {
+                boolean nextQueue = !isEmpty() ||
+                        (next < store.size() && store.getArrivalTime(next) == frame);
+                int level = levels[job];
+                if (level < 0)
+                    levels[job] = 0;
+                else if (nextQueue)
+                    levels[job] = Math.min(level + 1, quanta.length - 1);
+            }
+            add(job);
+        }
+
+
+        /*
+         * the next job: the shortest, or the first of the highest non-empty queue
+         */
+        int poll() {
+            size--;
+            if (policy == Scheduler.SHORTEST_REMAINING_TIME)
+                return heap.poll();
+
+            int level = Long.numberOfTrailingZeros(occupied);
+            int job = queues[level].removeFirst();
+            if (queues[level].isEmpty())
+                occupied &= ~(1L << level);
+            return job;
+        }
+
+
+        /*
+         * a job for another cpu: the last one of the lowest non-empty queue,
+         * the one this cpu would run last, or the shortest for shortest remaining time
+         */
+        int steal() {
+            size--;
+            if (policy == Scheduler.SHORTEST_REMAINING_TIME)
+                return heap.poll();
+
+            int level = 63 - Long.numberOfLeadingZeros(occupied);
+            int job = queues[level].removeLast();
+            if (queues[level].isEmpty())
+                occupied &= ~(1L << level);
+            return job;
+        }
+
+
+        void boost() {
+            for (int level = 1; level < queues.length; level++) {
+                while (!queues[level].isEmpty()) {
+                    int job = queues[level].removeFirst();
+                    levels[job] = 0;
+                    queues[0].addLast(job);
+                }
+            }
+            occupied = queues[0].isEmpty() ? 0 : 1;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package schedulers;
 
 import driver.Job;
 
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedList;
 
 
@@ -10,8 +12,15 @@ import java.util.LinkedList;
  * abstract class that defines how non-preemptive schedulers run,
  * including First Come First Serve, Shortest Process Next,
  * and Highest Response Ratio Next
+ * jobs are read once they arrive, or once they would arrive while the current job runs,
+ * so only jobs that have arrived by the time of a decision can be selected
+ * a job with i/o bursts runs one cpu burst per dispatch, then waits in a heap
+ * of the times its i/o burst ends before it is queued again, as if it arrived then
  */
 abstract class NonpreemptiveScheduler extends Scheduler {
+    private ArrivalIndex arrivalQueue;     // jobs to run by arrival time
+    ReadyQueue priorityQueue;              // jobs to run by the priority of the scheduler, if any
+    private JobHeap blocked;               // jobs in i/o, by the time their i/o burst ends
 
     /***
      * constructor
@@ -22,29 +31,128 @@ abstract class NonpreemptiveScheduler extends Scheduler {
         super(jobs);
     }
 
+    NonpreemptiveScheduler(Iterator<Job> jobs) {
+        super(jobs);
+    }
+
 
     /***
      * method: run
      * remove each job from the list
-     * wait and run to its completion
-     * add to the processed list after it finished
+     * wait and run to its completion, or to the end of its cpu burst
+     * add to the processed list after it finished, or to the blocked jobs
      * update new start time
      */
     @Override
     public void run() {
+        // the list of jobs is read in arrival order, as the jobs arrive
+        listOfJobs.sort(Comparator.comparingInt(Job::getArrivalTime));
+        arrivalQueue = new ArrivalIndex();
+        lastJob = null;
+        blocked = new JobHeap(Comparator.comparingInt(Job::getReadyTime));
+
+        while(hasArrivals() || !arrivalQueue.isEmpty() || !blocked.isEmpty()) {
+            // read the jobs arrived so far, if none the cpu idles until the next ones get ready
+            readArrivals(frame);
+            if (arrivalQueue.isEmpty()) {
+                frame = nextReady();
+                readArrivals(frame);
+            }
 
-        while(!listOfJobs.isEmpty()) {
             Job job = next();
-            job.runSlice(0, frame);
-            job.runComplete();
-            processedJobs.add(job);
-            frame += job.getDuration();
+            decisions++;
+            frame += switchTo(job);
+            int burst = job.getBurstTime();
+            job.runSlice(0, frame - job.getTimeline().getEnd());
+            metrics.recordRun(frame, burst);
+            if (burst < job.getRemainingTime()) {
+                // cpu burst, then i/o
+                job.runSlice(burst, 0);
+                frame += burst;
+                job.block();
+                metrics.recordIo(frame, job.getIo());
+                blocked.add(job);
+            }
+            else {
+                job.runComplete();
+                complete(job);
+                frame += burst;
+            }
         }
 
         printList();
     }
 
 
+    /***
+     * method: queue
+     * add a job to the arrival queue and the priority queue
+     * @param job: a job to add
+     */
+    private void queue(Job job) {
+        arrivalQueue.add(job);
+        if (priorityQueue != null)
+            priorityQueue.add(job);
+    }
+
+
+    /***
+     * method: readArrivals
+     * read every job arriving or back from i/o by a time,
+     * in the order they get ready
+     * @param time: a time
+     */
+    private void readArrivals(int time) {
+        while (nextReady() <= time)
+            queueNext();
+    }
+
+
+    /***
+     * method: queueNext
+     * queue the next job to get ready, a job back from i/o before an arrival at the same time
+     */
+    private void queueNext() {
+        if (!blocked.isEmpty() && (!hasArrivals() || blocked.peek().getReadyTime() <= peekArrival().getArrivalTime()))
+            queue(blocked.poll());
+        else
+            queue(pollArrival());
+    }
+
+
+    /***
+     * method: nextReady
+     * @return time the next job arrives or comes back from i/o, or Integer.MAX_VALUE if none left
+     */
+    private int nextReady() {
+        int next = hasArrivals() ? peekArrival().getArrivalTime() : Integer.MAX_VALUE;
+        if (!blocked.isEmpty())
+            next = Math.min(next, blocked.peek().getReadyTime());
+        return next;
+    }
+
+
+    /***
+     * method: next
+     * remove and return the first job of the queue matching the sort mode,
+     * the arrival queue for first come first serve and the priority queue otherwise
+     * @return the next job to run
+     */
+    protected Job next() {
+        Job job;
+        if (sortMode == FIRST_COME_FIRST_SERVE || priorityQueue == null) {
+            job = arrivalQueue.poll();
+            if (priorityQueue != null)
+                priorityQueue.remove(job);
+        }
+        else {
+            job = priorityQueue.poll();
+            arrivalQueue.remove(job);
+        }
+        return job;
+    }
+
+
     /***
      * method: next
      * decide which job to run next
@@ -52,37 +160,29 @@ abstract class NonpreemptiveScheduler extends Scheduler {
      * @param mode: which scheduling method
      */
     protected void next(Job currentJob, int mode) {
+        // read the jobs arriving while the current job runs
+        readArrivals(frame + currentJob.getBurstTime() - 1);
+
         /*
          * use arrival time as priority if only 1 job
          * else check jobs wait
          */
-        if(listOfJobs.size() < 2) {
-            Job.setSortMode(FIRST_COME_FIRST_SERVE);
+        if(arrivalQueue.size() < 2) {
+            setSortMode(FIRST_COME_FIRST_SERVE);
         }
         else {
             int start = frame;                              // start time of current job
-            int finish = start + currentJob.getDuration();  // finish time of current job
-            int index = 0;                                  // index of job in the list
-            int jobsWait = 0;                               // how many jobs are waiting
-
-            // check till the end of the list
-            while(index < listOfJobs.size()) {
-                /*
-                 * if there is a job that starts after the start time and finish before the finish time
-                 * of the current job, increment the job wait and count to check the next job
-                 * when find a job that does not satisfy the above condition, break out of the while loop
-                 */
-                if(listOfJobs.get(index).getArrivalTime() < finish &&
-                        listOfJobs.get(index).getArrivalTime() > start) {
-                    jobsWait++;
-                }
-
-                index++;
-            }
+            int finish = start + currentJob.getBurstTime(); // finish time of the burst of current job
+
+            /*
+             * count the jobs that arrive after the start time and before the finish time
+             * of the current job
+             */
+            int jobsWait = arrivalQueue.countBetween(start, finish);
 
             // if more than 1 job is waiting, set the priority to the mode
             if(jobsWait > 1)
-                Job.setSortMode(mode);
+                setSortMode(mode);
         }
     }
 }
@@ -0,0 +1,531 @@
+package schedulers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/***
+ * class: schedulers.PolicyExecutor
+ * an ExecutorService running real tasks in the order of a scheduling policy:
+ * First Come First Serve, Round Robin, Shortest Remaining Time, or the multilevel queues of FeedbackScheduler
+ *
+ * at most a number of carriers of tasks run at once, and the policy picks the next task whenever a carrier is free
+ * a task only gives its carrier back when it finishes or at a yield point, see yieldPoint():
+ * RR and FEEDBACK take the carrier back once the task used its quantum and another task waits,
+ * FEEDBACK then moves the task one queue down, and an optional boost moves every task back to the highest queue,
+ * SRT takes it back when a waiting task has a shorter remaining time, from the estimates given to submit,
+ * FCFS runs every task to its completion
+ *
+ * each task runs on its own thread of the thread factory, the threads of finished tasks are reused,
+ * a task that gives its carrier back keeps its thread, parked until the policy picks it again,
+ * so a factory of virtual threads, on Java 21, makes waiting tasks cheap
+ *
+ * times are measured with System.nanoTime, the metrics are given in the time unit of the executor
+ */
+public class PolicyExecutor extends AbstractExecutorService {
+    private static final ThreadLocal<Task> CURRENT = new ThreadLocal<>();   // task running on each thread
+    private static final long UNKNOWN = Long.MAX_VALUE;                      // estimate of a task without one
+
+    private final int policy;                          // FIRST_COME_FIRST_SERVE, ROUND_ROBIN, SHORTEST_REMAINING_TIME or FEEDBACK
+    private final int carriers;                        // most tasks running at once
+    private final long[] quanta;                       // slice of each queue in nanoseconds, one queue but FEEDBACK
+    private final long boostPeriod;                    // FEEDBACK: nanoseconds between two boosts, 0 for none
+    private final TimeUnit unit;                       // unit of the quanta and the metrics
+    private final ExecutorService threads;             // threads of the tasks
+    private final long epoch = System.nanoTime();      // time 0 of the metrics
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition terminated = lock.newCondition();
+    private final List<ArrayDeque<Task>> queues;       // waiting tasks of each queue, from the highest priority
+    private final PriorityQueue<Task> shortest;        // SRT: waiting tasks by remaining time, then submission
+    private final Set<Task> started = new HashSet<>(); // tasks that have a thread and did not finish
+    private final Metrics metrics = new Metrics();     // results of the finished tasks
+    private volatile long shortestWaiting = UNKNOWN;   // SRT: remaining time of the first waiting task
+    private long occupied;                             // bit i is set when queue i is not empty
+    private long nextBoost;                            // FEEDBACK: time of the next boost
+    private long submitted;                            // tasks ever submitted, breaks ties
+    private int running;                               // tasks holding a carrier
+    private int live;                                  // tasks submitted and not finished
+    private boolean shutdown;
+
+
+    /***
+     * class: Task
+     * a submitted task, with the time it ran and its place in the policy
+     */
+    private final class Task {
+        final Runnable work;
+        final long order;                              // submission order
+        final long estimate;                           // expected running time in nanoseconds, or UNKNOWN
+        final long submitTime;
+        final Condition wake = lock.newCondition();    // signaled when the task gets a carrier back
+        boolean granted;                               // the task got a carrier and did not take it yet
+        boolean queued;                                // the task waits in a queue
+        Thread thread;                                 // thread of the task once started
+        int level;                                     // FEEDBACK: queue of the task, -1 when boosted while running
+        long used;                                     // nanoseconds the task ran before its current slice
+        long sliceStart;                               // time the current slice started
+        long startTime = -1;                           // time the task first ran
+
+        Task(Runnable work, long estimate) {
+            this.work = work;
+            this.estimate = estimate;
+            this.order = submitted++;
+            this.submitTime = System.nanoTime();
+        }
+
+        PolicyExecutor executor() {
+            return PolicyExecutor.this;
+        }
+
+        long remaining(long now) {
+            return estimate == UNKNOWN ? UNKNOWN : Math.max(0, estimate - used - (now - sliceStart));
+        }
+    }
+
+
+    /***
+     * constructor
+     * @param policy: FIRST_COME_FIRST_SERVE, ROUND_ROBIN, SHORTEST_REMAINING_TIME,
+     *              or FEEDBACK with 3 queues of the quantum
+     * @param carriers: most tasks running at once
+     * @param quantum: slice of round robin and feedback
+     * @param unit: unit of the quantum and the metrics
+     */
+    public PolicyExecutor(int policy, int carriers, long quantum, TimeUnit unit) {
+        this(policy, carriers, quantum, unit, Executors.defaultThreadFactory());
+    }
+
+    public PolicyExecutor(int policy, int carriers, long quantum, TimeUnit unit, ThreadFactory factory) {
+        this(policy, carriers, policy == Scheduler.FEEDBACK ? new long[] {quantum, quantum, quantum} : new long[] {quantum},
+                0, unit, factory);
+        if (policy != Scheduler.FIRST_COME_FIRST_SERVE && policy != Scheduler.ROUND_ROBIN
+                && policy != Scheduler.SHORTEST_REMAINING_TIME && policy != Scheduler.FEEDBACK)
+            throw new IllegalArgumentException("no executor for policy " + policy);
+    }
+
+
+    /***
+     * constructor
+     * a feedback executor with one queue per slice and a periodic boost, see FeedbackScheduler
+     * @param carriers: most tasks running at once
+     * @param quanta: slice of each queue, from the highest priority
+     * @param boostPeriod: time between two moves of every task to the highest queue, 0 for none
+     * @param unit: unit of the quanta, the boost period and the metrics
+     */
+    public PolicyExecutor(int carriers, int[] quanta, int boostPeriod, TimeUnit unit) {
+        this(carriers, quanta, boostPeriod, unit, Executors.defaultThreadFactory());
+    }
+
+    public PolicyExecutor(int carriers, int[] quanta, int boostPeriod, TimeUnit unit, ThreadFactory factory) {
+        this(Scheduler.FEEDBACK, carriers, toLongs(quanta, boostPeriod), boostPeriod, unit, factory);
+    }
+
+
+    private PolicyExecutor(int policy, int carriers, long[] quanta, long boostPeriod, TimeUnit unit,
+                           ThreadFactory factory) {
+        if (carriers < 1)
+            throw new IllegalArgumentException("at least one carrier is needed: " + carriers);
+        for (long quantum : quanta) {
+            if (quantum < 1)
+                throw new IllegalArgumentException("quanta must be positive: " + quantum);
+        }
+        this.policy = policy;
+        this.carriers = carriers;
+        metrics.setCpus(carriers);
+        this.unit = unit;
+        this.quanta = new long[quanta.length];
+        for (int level = 0; level < quanta.length; level++)
+            this.quanta[level] = unit.toNanos(quanta[level]);
+        this.boostPeriod = unit.toNanos(boostPeriod);
+        nextBoost = epoch + this.boostPeriod;
+        threads = Executors.newCachedThreadPool(factory);
+
+        queues = new ArrayList<>(quanta.length);
+        for (int level = 0; level < quanta.length; level++)
+            queues.add(new ArrayDeque<>());
+        shortest = new PriorityQueue<>(Comparator.comparingLong((Task t) -> t.remaining(t.sliceStart))
+                .thenComparingLong(t -> t.order));
+    }
+
+
+    private static long[] toLongs(int[] quanta, int boostPeriod) {
+        FeedbackScheduler.checkQueues(quanta, boostPeriod);
+        long[] longs = new long[quanta.length];
+        for (int level = 0; level < quanta.length; level++)
+            longs[level] = quanta[level];
+        return longs;
+    }
+
+
+    /***
+     * method: yieldPoint
+     * called by a running task where it can give its carrier back,
+     * returns at once unless the policy runs another task first
+     * does nothing outside the tasks of a PolicyExecutor
+     */
+    public static void yieldPoint() {
+        Task task = CURRENT.get();
+        if (task != null)
+            task.executor().yieldTask(task);
+    }
+
+
+    @Override
+    public void execute(Runnable command) {
+        submitTask(command, UNKNOWN);
+    }
+
+
+    /***
+     * method: submit
+     * submit a task with the time it is expected to run, used by SRT
+     * @param task: the task
+     * @param estimate: expected running time
+     * @param unit: unit of the estimate
+     * @return a future of the result of the task
+     */
+    public <T> Future<T> submit(Callable<T> task, long estimate, TimeUnit unit) {
+        FutureTask<T> future = new FutureTask<>(task);
+        submitTask(future, unit.toNanos(estimate));
+        return future;
+    }
+
+    public Future<?> submit(Runnable task, long estimate, TimeUnit unit) {
+        FutureTask<Void> future = new FutureTask<>(task, null);
+        submitTask(future, unit.toNanos(estimate));
+        return future;
+    }
+
+
+    private void submitTask(Runnable command, long estimate) {
+        if (command == null)
+            throw new NullPointerException();
+        lock.lock();
+        try {
+            if (shutdown)
+                throw new RejectedExecutionException("the executor is shut down");
+            Task task = new Task(command, estimate);
+            task.sliceStart = task.submitTime;
+            live++;
+            enqueue(task, 0);
+            dispatch();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /***
+     * method: dispatch
+     * give every free carrier to the next task of the policy, the lock is held
+     */
+    private void dispatch() {
+        if (boostPeriod > 0 && System.nanoTime() >= nextBoost)
+            boost();
+        while (running < carriers) {
+            Task task = poll();
+            if (task == null)
+                break;
+            running++;
+            if (!started.contains(task)) {
+                started.add(task);
+                threads.execute(() -> runTask(task));
+            }
+            else {
+                task.granted = true;
+                task.wake.signal();
+            }
+        }
+        shortestWaiting = shortest.isEmpty() ? UNKNOWN : shortest.peek().remaining(shortest.peek().sliceStart);
+    }
+
+
+    private void enqueue(Task task, int level) {
+        task.queued = true;
+        if (policy == Scheduler.SHORTEST_REMAINING_TIME) {
+            shortest.add(task);
+            return;
+        }
+        task.level = level;
+        queues.get(level).addLast(task);
+        occupied |= 1L << level;
+    }
+
+
+    private Task poll() {
+        Task task;
+        if (policy == Scheduler.SHORTEST_REMAINING_TIME) {
+            task = shortest.poll();
+        }
+        else {
+            if (occupied == 0)
+                return null;
+            int level = Long.numberOfTrailingZeros(occupied);
+            task = queues.get(level).removeFirst();
+            if (queues.get(level).isEmpty())
+                occupied &= ~(1L << level);
+        }
+        if (task != null)
+            task.queued = false;
+        return task;
+    }
+
+
+    private boolean othersWaiting() {
+        return policy == Scheduler.SHORTEST_REMAINING_TIME ? !shortest.isEmpty() : occupied != 0;
+    }
+
+
+    /*
+     * feedback: move every waiting task to the highest queue, running tasks go there when preempted
+     */
+    private void boost() {
+        for (int level = 1; level < queues.size(); level++) {
+            while (!queues.get(level).isEmpty()) {
+                Task task = queues.get(level).removeFirst();
+                task.level = 0;
+                queues.get(0).addLast(task);
+            }
+        }
+        occupied = queues.get(0).isEmpty() ? 0 : 1;
+        for (Task task : started) {
+            if (!task.queued)
+                task.level = -1;
+        }
+        long now = System.nanoTime();
+        nextBoost = now + boostPeriod - (now - epoch) % boostPeriod;
+    }
+
+
+    /***
+     * method: runTask
+     * run a task on its thread, from its first carrier to its completion
+     * @param task: the task
+     */
+    private void runTask(Task task) {
+        lock.lock();
+        try {
+            task.thread = Thread.currentThread();
+            task.startTime = System.nanoTime();
+            task.sliceStart = task.startTime;
+        }
+        finally {
+            lock.unlock();
+        }
+
+        CURRENT.set(task);
+        try {
+            task.work.run();
+        }
+        finally {
+            CURRENT.remove();
+            finish(task);
+            // a reused thread does not keep the interrupt of shutdownNow
+            Thread.interrupted();
+        }
+    }
+
+
+    private void finish(Task task) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            task.used += now - task.sliceStart;
+            running--;
+            live--;
+            started.remove(task);
+
+            // times relative to the arrival, so waiting and response are never negative
+            long arrival = unit.convert(task.submitTime - epoch, TimeUnit.NANOSECONDS);
+            long completion = arrival + unit.convert(now - task.submitTime, TimeUnit.NANOSECONDS);
+            long start = arrival + unit.convert(task.startTime - task.submitTime, TimeUnit.NANOSECONDS);
+            long duration = Math.min(unit.convert(task.used, TimeUnit.NANOSECONDS), completion - arrival);
+            metrics.record(toInt(arrival), toInt(duration), toInt(start), toInt(completion));
+
+            dispatch();
+            if (shutdown && live == 0) {
+                threads.shutdown();
+                terminated.signalAll();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    private static int toInt(long time) {
+        return (int) Math.min(Integer.MAX_VALUE, time);
+    }
+
+
+    /***
+     * method: yieldTask
+     * give the carrier of a running task back if the policy runs another task first,
+     * and wait until the policy picks the task again
+     * @param task: the running task of the calling thread
+     */
+    private void yieldTask(Task task) {
+        if (policy == Scheduler.FIRST_COME_FIRST_SERVE)
+            return;
+        long now = System.nanoTime();
+        if (policy == Scheduler.SHORTEST_REMAINING_TIME) {
+            if (shortestWaiting >= task.remaining(now))
+                return;
+        }
+        else if (now - task.sliceStart < quanta[Math.max(task.level, 0)]) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            task.used += now - task.sliceStart;
+            task.sliceStart = now;
+            if (!othersWaiting())
+                return;
+            if (policy == Scheduler.SHORTEST_REMAINING_TIME && shortest.peek().remaining(shortest.peek().sliceStart)
+                    >= task.remaining(now))
+                return;
+
+            enqueue(task, policy == Scheduler.FEEDBACK ? Math.min(task.level + 1, queues.size() - 1) : 0);
+            running--;
+            dispatch();
+            while (!task.granted)
+                task.wake.awaitUninterruptibly();
+            task.granted = false;
+            task.sliceStart = System.nanoTime();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /***
+     * method: getMetrics
+     * @return results of the finished tasks, in the time unit of the executor, read once the executor terminated
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public int getPolicy() {
+        return policy;
+    }
+
+    public int getCarriers() {
+        return carriers;
+    }
+
+
+    @Override
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            if (live == 0) {
+                threads.shutdown();
+                terminated.signalAll();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    /*
+     * tasks that never ran are returned, started tasks are interrupted and keep their place in the policy
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> waiting = new ArrayList<>();
+        lock.lock();
+        try {
+            shutdown = true;
+            List<Task> kept = new ArrayList<>();
+            Task task;
+            while ((task = poll()) != null) {
+                if (started.contains(task))
+                    kept.add(task);
+                else
+                    waiting.add(task.work);
+            }
+            live -= waiting.size();
+            for (Task waitingTask : kept)
+                enqueue(waitingTask, Math.max(waitingTask.level, 0));
+            for (Task startedTask : started) {
+                if (startedTask.thread != null)
+                    startedTask.thread.interrupt();
+            }
+            if (live == 0) {
+                threads.shutdown();
+                terminated.signalAll();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        return waiting;
+    }
+
+
+    @Override
+    public boolean isShutdown() {
+        lock.lock();
+        try {
+            return shutdown;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    @Override
+    public boolean isTerminated() {
+        lock.lock();
+        try {
+            return shutdown && live == 0;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (!(shutdown && live == 0)) {
+                if (nanos <= 0)
+                    return false;
+                nanos = terminated.awaitNanos(nanos);
+            }
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+}
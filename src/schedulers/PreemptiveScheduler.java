@@ -2,15 +2,39 @@ package schedulers;
 
 import driver.Job;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
 
 
 /***
  * class: schedulers.PreemptiveScheduler
  * abstract class that defines how preemptive schedulers run,
  * including Round Robin, Shortest Remaining Time, and Feedback
+ *
+ * the simulation is event driven: instead of stepping one time unit at a time,
+ * the frame jumps straight to the next arrival, completion, or preemption point,
+ * so the cost of a run scales with the number of events rather than the simulated time
+ *
+ * besides run(), the simulation can be driven online: start() it, submit() jobs as they arrive,
+ * advanceTo() a time or step() to the next event, observe the running and ready jobs in between,
+ * then finish() it, with the same results as run() over the same jobs
+ * a slice is only recorded once the time moved past its end, so a job submitted
+ * while the slice runs can still cut it short, as an arrival known from the start would
+ *
+ * a job whose cpu burst ran out before its completion is blocked for its i/o time,
+ * in a heap of the times the i/o bursts end, then goes back to the ready queue of the policy,
+ * see block and wake, so every transition costs O(log n)
  */
 abstract class PreemptiveScheduler extends Scheduler {
+    private int lastAdmission;                        // time the last job was admitted
+    private Job running;                              // dispatched job whose slice has not been recorded
+    private JobHeap blocked;                          // jobs in i/o, by the time their i/o burst ends
+    private int time;                                 // every event before this time has been simulated
+    private boolean started;                          // start() was called
 
     /***
      * constructor
@@ -21,4 +45,358 @@ abstract class PreemptiveScheduler extends Scheduler {
         super(jobs);
     }
 
+    PreemptiveScheduler(Iterator<Job> jobs) {
+        super(jobs);
+    }
+
+
+    /***
+     * method: run
+     * admit arrived jobs, dispatch the next job and run it
+     * until its completion or the next preemption point,
+     * then either add it back to the ready queue or to the processed list
+     * when no job is ready, jump to the next arrival
+     */
+    @Override
+    public void run() {
+        start();
+        finish();
+    }
+
+
+    /***
+     * method: start
+     * start a simulation at time 0 with the jobs given to the constructor, if any
+     */
+    public void start() {
+        frame = 0;
+        time = 0;
+        lastAdmission = -1;
+        lastJob = null;
+        running = null;
+        blocked = new JobHeap(Comparator.comparingInt(Job::getReadyTime));
+        reset();
+        started = true;
+    }
+
+
+    /***
+     * method: submit
+     * add a job to the simulation, arriving now or later
+     * @param job: a new job, its arrival time must be at least the current time
+     */
+    public void submit(Job job) {
+        if (!started)
+            start();
+        if (job.getArrivalTime() < time)
+            throw new IllegalArgumentException("job " + job.getName() + " arrives at " + job.getArrivalTime() +
+                    ", before the current time " + time);
+        if (arrivals.hasNext())
+            throw new IllegalStateException("jobs are still read from an iterator");
+
+        // keep the list of jobs sorted by arrival time, a job arriving with others goes after them
+        ListIterator<Job> position = listOfJobs.listIterator(listOfJobs.size());
+        while (position.hasPrevious()) {
+            if (position.previous().getArrivalTime() <= job.getArrivalTime()) {
+                position.next();
+                break;
+            }
+        }
+        position.add(job);
+    }
+
+
+    /***
+     * method: advanceTo
+     * simulate every event before a time,
+     * jobs may still be submitted for that time
+     * @param until: the new current time, at least the current time
+     */
+    public void advanceTo(int until) {
+        if (!started)
+            start();
+        if (until < time)
+            throw new IllegalArgumentException("cannot go back from time " + time + " to " + until);
+        time = until;
+        simulate();
+    }
+
+
+    /***
+     * method: step
+     * simulate the next event, the end of a slice or an admission or wakeup on an idle cpu,
+     * with every other event at the same time
+     * @return false if no event is left
+     */
+    public boolean step() {
+        if (!started)
+            start();
+        int next;
+        if (running != null)
+            next = frame + slice(running);
+        else if (!readyQueueEmpty())
+            next = frame;
+        else if (hasArrivals() || !blocked.isEmpty())
+            next = nextEvent();
+        else
+            return false;
+        advanceTo(Math.max(time, next + 1));
+        return true;
+    }
+
+
+    /***
+     * method: finish
+     * simulate every job left and print the chart
+     */
+    public void finish() {
+        if (!started)
+            start();
+        time = Integer.MAX_VALUE;
+        simulate();
+        started = false;
+        printList();
+    }
+
+
+    /***
+     * method: simulate
+     * run the loop of the scheduler until the next event would be at the current time or later,
+     * the dispatched job keeps running when its slice ends then
+     */
+    private void simulate() {
+        while (true) {
+            // completion or preemption event of the running job
+            if (running != null) {
+                int slice = slice(running);
+                if (frame + slice >= time)
+                    return;
+                Job job = running;
+                running = null;
+                job.runSliceAt(frame, slice);
+                metrics.recordRun(frame, slice);
+                frame += slice;
+                if (job.getRemainingTime() == 0) {
+                    complete(job);
+                }
+                else if (job.getBurstTime() == 0) {
+                    block(job);
+                    job.block();
+                    metrics.recordIo(frame, job.getIo());
+                    blocked.add(job);
+                }
+                else {
+                    preempt(job);
+                }
+            }
+
+            // run until the list of jobs, the ready queue and the blocked jobs are empty
+            if (frame >= time || !(hasArrivals() || !readyQueueEmpty() || !blocked.isEmpty()))
+                return;
+
+            // i/o completion and arrival events
+            while (!blocked.isEmpty() && blocked.peek().getReadyTime() <= frame)
+                wake(blocked.poll());
+            admitArrivals();
+
+            // idle cpu: jump to the next arrival or wakeup
+            if (readyQueueEmpty()) {
+                if (nextEvent() >= time)
+                    return;
+                frame = nextEvent();
+                continue;
+            }
+
+            // switch to the dispatched job, it runs once its slice is known
+            running = dispatch();
+            decisions++;
+            frame += switchTo(running);
+        }
+    }
+
+
+    /***
+     * method: slice
+     * time the dispatched job runs until its next event,
+     * at least one time unit when an arrival was due while switching
+     * @param job: the dispatched job, the frame is the time it starts running
+     * @return length of the slice
+     */
+    private int slice(Job job) {
+        return Math.min(job.getBurstTime(), Math.max(1, timeSlice(job)));
+    }
+
+
+    public int getTime() {
+        return time;
+    }
+
+    /***
+     * method: getRunningJob
+     * @return the dispatched job, its current slice is not recorded in its timeline yet, or null if the cpu is idle
+     */
+    public Job getRunningJob() {
+        return running;
+    }
+
+    /***
+     * method: getReadyJobs
+     * @return the admitted jobs waiting for the cpu, in the order the policy would dispatch them when it has one
+     */
+    public List<Job> getReadyJobs() {
+        List<Job> jobs = new ArrayList<>();
+        readyJobs(jobs);
+        return jobs;
+    }
+
+    /***
+     * method: getBlockedJobs
+     * @return the jobs in i/o, by the time their i/o burst ends
+     */
+    public List<Job> getBlockedJobs() {
+        List<Job> jobs = new ArrayList<>();
+        if (blocked != null)
+            blocked.copyTo(jobs);
+        return jobs;
+    }
+
+    /***
+     * method: getPendingJobs
+     * @return the submitted jobs not admitted yet, by arrival time
+     */
+    public List<Job> getPendingJobs() {
+        return new ArrayList<>(listOfJobs);
+    }
+
+
+    /***
+     * method: nextAdmission
+     * time the head of the list of jobs gets admitted,
+     * at most one job is admitted per time unit
+     * @return the admission time of the next job
+     */
+    int nextAdmission() {
+        return Math.max(peekArrival().getArrivalTime(), lastAdmission + 1);
+    }
+
+
+    /***
+     * method: nextEvent
+     * @return the earliest of the next admission and the end of the next i/o burst,
+     * or Integer.MAX_VALUE if neither is left
+     */
+    private int nextEvent() {
+        int next = hasArrivals() ? nextAdmission() : Integer.MAX_VALUE;
+        if (!blocked.isEmpty())
+            next = Math.min(next, blocked.peek().getReadyTime());
+        return next;
+    }
+
+
+    /***
+     * method: untilNextAdmission
+     * @return time left until the next job is admitted or back from i/o, or Integer.MAX_VALUE if none left
+     */
+    int untilNextAdmission() {
+        int next = nextEvent();
+        return next == Integer.MAX_VALUE ? next : next - frame;
+    }
+
+
+    /***
+     * method: wakesAt
+     * @param time: a time
+     * @return true if an i/o burst ends at that time
+     */
+    boolean wakesAt(int time) {
+        return !blocked.isEmpty() && blocked.peek().getReadyTime() == time;
+    }
+
+
+    /***
+     * method: admitArrivals
+     * remove every job whose admission time has been reached from the list
+     * and add it to the ready queue
+     */
+    void admitArrivals() {
+        while (hasArrivals() && nextAdmission() <= frame) {
+            lastAdmission = nextAdmission();
+            admit(pollArrival());
+        }
+    }
+
+
+    /***
+     * method: reset
+     * clear the state of the policy before a simulation starts
+     */
+    abstract void reset();
+
+
+    /***
+     * method: readyJobs
+     * add the ready jobs to a list, in the order the policy would dispatch them when it has one
+     * @param jobs: the list
+     */
+    abstract void readyJobs(List<Job> jobs);
+
+
+    /***
+     * method: readyQueueEmpty
+     * @return true if no admitted job is waiting to run
+     */
+    abstract boolean readyQueueEmpty();
+
+
+    /***
+     * method: admit
+     * add a newly arrived job to the ready queue
+     * @param job: the arrived job
+     */
+    abstract void admit(Job job);
+
+
+    /***
+     * method: dispatch
+     * remove and return the next job to run from the ready queue
+     * @return the next job to run
+     */
+    abstract Job dispatch();
+
+
+    /***
+     * method: timeSlice
+     * how long the dispatched job may run before the scheduler preempts it
+     * @param job: the dispatched job
+     * @return time until the next preemption point
+     */
+    abstract int timeSlice(Job job);
+
+
+    /***
+     * method: preempt
+     * add an unfinished job back to the ready queue
+     * @param job: the preempted job
+     */
+    abstract void preempt(Job job);
+
+
+    /***
+     * method: block
+     * let go of the dispatched job when its cpu burst ran out, it is in i/o until its ready time
+     * @param job: the blocked job
+     */
+    void block(Job job) {
+    }
+
+
+    /***
+     * method: wake
+     * add a job back to the ready queue when its i/o burst ended, as an arrival by default
+     * @param job: the job back from i/o
+     */
+    void wake(Job job) {
+        admit(job);
+    }
+
 }
@@ -0,0 +1,134 @@
+package schedulers;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+
+/***
+ * class: schedulers.QuantileSketch
+ * streaming quantiles of non-negative values in a log-linear histogram:
+ * values below 512 have a bucket each, larger values share a bucket
+ * with values less than 1/256 apart, so a quantile is exact for small values
+ * and within 0.2% for large ones, in a few KB whatever the number of values
+ */
+class QuantileSketch {
+    private static final int PRECISION = 9;            // bits kept of each value
+    private static final int EXACT = 1 << PRECISION;   // values with a bucket each
+    private static final int HALF = EXACT / 2;         // buckets per power of 2 above EXACT
+
+    private long[] counts;                             // number of values in each bucket
+    private long total;                                // number of values
+    private long min = Long.MAX_VALUE;                 // smallest value
+    private long max = Long.MIN_VALUE;                 // largest value
+
+
+    QuantileSketch() {
+        counts = new long[2 * EXACT];
+    }
+
+
+    /***
+     * method: add
+     * @param value: a value, negative values are counted as 0
+     */
+    void add(long value) {
+        value = Math.max(0, value);
+        int bucket = bucket(value);
+        if (bucket >= counts.length)
+            counts = Arrays.copyOf(counts, Math.max(bucket + 1, counts.length * 2));
+        counts[bucket]++;
+        total++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+
+    long size() {
+        return total;
+    }
+
+    long getMax() {
+        return max;
+    }
+
+
+    /***
+     * method: quantile
+     * @param q: a fraction between 0 and 1
+     * @return a value with about q of the values at or below it, 0 if the sketch is empty
+     */
+    long quantile(double q) {
+        if (total == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank)
+                return Math.max(min, Math.min(max, middle(bucket)));
+        }
+        return max;
+    }
+
+
+    /***
+     * method: write
+     * write the buckets up to the last used one, see Snapshot
+     * @param out: where to write
+     */
+    void write(DataOutput out) throws IOException {
+        int used = counts.length;
+        while (used > 0 && counts[used - 1] == 0)
+            used--;
+        out.writeLong(total);
+        out.writeLong(min);
+        out.writeLong(max);
+        out.writeInt(used);
+        for (int bucket = 0; bucket < used; bucket++)
+            out.writeLong(counts[bucket]);
+    }
+
+
+    /***
+     * method: read
+     * replace the values of the sketch by the ones written by write
+     * @param in: where to read
+     */
+    void read(DataInput in) throws IOException {
+        total = in.readLong();
+        min = in.readLong();
+        max = in.readLong();
+        int used = in.readInt();
+        if (used < 0 || used > bucket(Long.MAX_VALUE) + 1)
+            throw new IOException("corrupt quantile sketch");
+        counts = new long[Math.max(used, 2 * EXACT)];
+        for (int bucket = 0; bucket < used; bucket++)
+            counts[bucket] = in.readLong();
+    }
+
+
+    /*
+     * values below EXACT are their own bucket,
+     * above, each power of 2 is split in HALF buckets by the top bits of the value
+     */
+    private static int bucket(long value) {
+        if (value < EXACT)
+            return (int) value;
+        int shift = 64 - Long.numberOfLeadingZeros(value) - PRECISION;
+        int top = (int) (value >>> shift);
+        return EXACT + (shift - 1) * HALF + (top - HALF);
+    }
+
+
+    private static long middle(int bucket) {
+        if (bucket < EXACT)
+            return bucket;
+        int shift = (bucket - EXACT) / HALF + 1;
+        long top = (bucket - EXACT) % HALF + HALF;
+        long low = top << shift;
+        return low + (1L << shift) / 2;
+    }
+}
@@ -0,0 +1,50 @@
+package schedulers;
+
+import driver.Job;
+
+
+/***
+ * interface: schedulers.ReadyQueue
+ * jobs waiting to be selected, ordered by the priority of a scheduler
+ */
+interface ReadyQueue {
+
+    /***
+     * method: add
+     * add a job to the queue
+     * @param job: a job to add
+     */
+    void add(Job job);
+
+
+    /***
+     * method: remove
+     * remove a job from anywhere in the queue
+     * @param job: a job to remove
+     * @return true if the job was in the queue
+     */
+    boolean remove(Job job);
+
+
+    /***
+     * method: peek
+     * @return the highest priority job, or null if the queue is empty
+     */
+    Job peek();
+
+
+    /***
+     * method: poll
+     * remove and return the highest priority job
+     * @return the highest priority job, or null if the queue is empty
+     */
+    Job poll();
+
+
+    int size();
+
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+}
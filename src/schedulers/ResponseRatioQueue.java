@@ -0,0 +1,263 @@
+package schedulers;
+
+import driver.Job;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+
+/***
+ * class: schedulers.ResponseRatioQueue
+ * queue of jobs ordered by highest response ratio at the frame of a scheduler
+ *
+ * the ratio (wait + duration) / duration of each job grows linearly with time,
+ * for a job with i/o bursts (wait since its i/o ended + next burst) / next burst,
+ * so the order only changes when two of these lines cross.
+ * the jobs sit in the leaves of a tournament tree, each node keeps the winner of
+ * its subtree and the first frame its loser overtakes the winner.
+ * when the frame moves, only the nodes whose winner changed are played again,
+ * instead of sorting every job
+ */
+class ResponseRatioQueue implements ReadyQueue {
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final Scheduler scheduler;                  // scheduler that owns the frame
+    private Job[] leaves;                               // job of each leaf, null if empty
+    private long[] order;                               // insertion order of each leaf
+    private int[] winner;                               // winning leaf of each node, -1 if none
+    private long[] expire;                              // first frame a node of the subtree changes
+    private int capacity;                               // number of leaves
+    private int used;                                   // leaves used so far
+    private int size;                                   // number of jobs in the queue
+    private long added;                                 // number of jobs ever added
+    private long time;                                  // frame the tree is valid for
+    private final IdentityHashMap<Job, Integer> index;  // leaf of each job
+
+
+    /***
+     * constructor
+     * create an empty queue
+     * @param scheduler: scheduler whose frame is used to compute the ratios
+     */
+    ResponseRatioQueue(Scheduler scheduler) {
+        this.scheduler = scheduler;
+        index = new IdentityHashMap<>();
+        allocate(16);
+        time = scheduler.getFrame();
+    }
+
+
+    @Override
+    public void add(Job job) {
+        advance();
+
+        // out of leaves: double the tree and pack the jobs to the left
+        if (used == capacity) {
+            Job[] jobs = new Job[size];
+            long[] jobOrder = new long[size];
+            int count = 0;
+            for (int leaf = 0; leaf < used; leaf++) {
+                if (leaves[leaf] != null) {
+                    jobs[count] = leaves[leaf];
+                    jobOrder[count++] = order[leaf];
+                }
+            }
+            allocate(Math.max(16, Integer.highestOneBit(Math.max(size, 1)) * 4));
+            for (int leaf = 0; leaf < count; leaf++) {
+                leaves[leaf] = jobs[leaf];
+                order[leaf] = jobOrder[leaf];
+                winner[capacity + leaf] = leaf;
+                index.put(jobs[leaf], leaf);
+            }
+            used = count;
+            for (int node = capacity - 1; node > 0; node--) {
+                play(node);
+            }
+        }
+
+        int leaf = used++;
+        leaves[leaf] = job;
+        order[leaf] = added++;
+        index.put(job, leaf);
+        winner[capacity + leaf] = leaf;
+        size++;
+        replay(capacity + leaf);
+    }
+
+
+    @Override
+    public boolean remove(Job job) {
+        Integer leaf = index.remove(job);
+        if (leaf == null) {
+            return false;
+        }
+        advance();
+        leaves[leaf] = null;
+        winner[capacity + leaf] = -1;
+        size--;
+        replay(capacity + leaf);
+        return true;
+    }
+
+
+    @Override
+    public Job peek() {
+        if (size == 0) {
+            return null;
+        }
+        advance();
+        return leaves[winner[1]];
+    }
+
+
+    @Override
+    public Job poll() {
+        Job job = peek();
+        if (job != null) {
+            remove(job);
+        }
+        return job;
+    }
+
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+
+    /***
+     * method: allocate
+     * create an empty tree
+     * @param leafCount: number of leaves, a power of 2
+     */
+    private void allocate(int leafCount) {
+        capacity = leafCount;
+        leaves = new Job[capacity];
+        order = new long[capacity];
+        winner = new int[2 * capacity];
+        expire = new long[2 * capacity];
+        Arrays.fill(winner, -1);
+        Arrays.fill(expire, NEVER);
+        used = 0;
+    }
+
+
+    /***
+     * method: advance
+     * bring the tree to the current frame of the scheduler,
+     * playing again only the nodes whose winner may have changed
+     */
+    private void advance() {
+        long now = scheduler.getFrame();
+
+        // time went back: every result is stale
+        if (now < time) {
+            time = now;
+            for (int node = capacity - 1; node > 0; node--) {
+                play(node);
+            }
+            return;
+        }
+
+        time = now;
+        if (expire[1] <= time) {
+            refresh(1);
+        }
+    }
+
+
+    private void refresh(int node) {
+        if (node >= capacity || expire[node] > time) {
+            return;
+        }
+        refresh(2 * node);
+        refresh(2 * node + 1);
+        play(node);
+    }
+
+
+    /***
+     * method: replay
+     * play again every node from a leaf up to the root
+     * @param node: the leaf node that changed
+     */
+    private void replay(int node) {
+        for (node /= 2; node > 0; node /= 2) {
+            play(node);
+        }
+    }
+
+
+    /***
+     * method: play
+     * decide the winner of a node from the winners of its children,
+     * and the first frame at which the loser would overtake it
+     * @param node: an internal node
+     */
+    private void play(int node) {
+        int left = winner[2 * node];
+        int right = winner[2 * node + 1];
+        long childExpire = Math.min(expire[2 * node], expire[2 * node + 1]);
+
+        if (left < 0 || right < 0) {
+            winner[node] = (left < 0) ? right : left;
+            expire[node] = childExpire;
+            return;
+        }
+
+        int win = higher(left, right) ? left : right;
+        int lose = (win == left) ? right : left;
+        winner[node] = win;
+        expire[node] = Math.min(childExpire, overtake(win, lose));
+    }
+
+
+    /***
+     * method: higher
+     * compare the response ratio of 2 leaves at the current frame,
+     * ties go to the longer job, then the earlier arrival, then the earlier insertion
+     * @return true if leaf a has a higher priority than leaf b
+     */
+    private boolean higher(int a, int b) {
+        Job aJob = leaves[a];
+        Job bJob = leaves[b];
+
+        // (time - ready + burst) / burst, cross multiplied
+        long aRatio = (time - aJob.getReadyTime() + aJob.getBurstTime()) * (long) bJob.getBurstTime();
+        long bRatio = (time - bJob.getReadyTime() + bJob.getBurstTime()) * (long) aJob.getBurstTime();
+        if (aRatio != bRatio) {
+            return aRatio > bRatio;
+        }
+        if (aJob.getBurstTime() != bJob.getBurstTime()) {
+            return aJob.getBurstTime() > bJob.getBurstTime();
+        }
+        if (aJob.getReadyTime() != bJob.getReadyTime()) {
+            return aJob.getReadyTime() < bJob.getReadyTime();
+        }
+        return order[a] < order[b];
+    }
+
+
+    /***
+     * method: overtake
+     * first frame at which the loser gets a strictly higher ratio than the winner,
+     * only a shorter job can catch up since its ratio grows faster
+     * @param win: leaf of the winner
+     * @param lose: leaf of the loser
+     * @return the frame, or NEVER
+     */
+    private long overtake(int win, int lose) {
+        long wDuration = leaves[win].getBurstTime();
+        long lDuration = leaves[lose].getBurstTime();
+        if (wDuration <= lDuration) {
+            return NEVER;
+        }
+
+        // loser ahead when slope * t + c > 0
+        long slope = wDuration - lDuration;
+        long c = (lDuration - leaves[lose].getReadyTime()) * wDuration
+                - (wDuration - leaves[win].getReadyTime()) * lDuration;
+        return Math.max(time + 1, Math.floorDiv(-c, slope) + 1);
+    }
+}
@@ -0,0 +1,148 @@
+package schedulers;
+
+import driver.JobStore;
+
+import java.util.Arrays;
+
+
+/***
+ * class: schedulers.ResponseRatioTree
+ * the tournament tree of ResponseRatioQueue over the rows of a store:
+ * leaf i is row i, so no map from jobs to leaves is needed
+ */
+class ResponseRatioTree {
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final JobStore store;                       // jobs of the leaves
+    private final int capacity;                         // number of leaves, a power of 2
+    private final int[] winner;                         // winning row of each node, -1 if none
+    private final long[] expire;                        // first frame a node of the subtree changes
+    private long time;                                  // frame the tree is valid for
+    private int size;                                   // number of jobs in the tree
+
+
+    /***
+     * constructor
+     * create an empty tree with a leaf for every job of a store
+     * @param store: the store
+     * @param time: current frame
+     */
+    ResponseRatioTree(JobStore store, int time) {
+        this.store = store;
+        this.time = time;
+        capacity = Math.max(1, Integer.highestOneBit(Math.max(store.size(), 1) * 2 - 1));
+        winner = new int[2 * capacity];
+        expire = new long[2 * capacity];
+        Arrays.fill(winner, -1);
+        Arrays.fill(expire, NEVER);
+    }
+
+
+    /***
+     * method: add
+     * @param row: row of a job not in the tree
+     * @param now: current frame, never earlier than the last call
+     */
+    void add(int row, int now) {
+        advance(now);
+        winner[capacity + row] = row;
+        size++;
+        for (int node = (capacity + row) / 2; node > 0; node /= 2)
+            play(node);
+    }
+
+
+    /***
+     * method: peek
+     * @param now: current frame, never earlier than the last call
+     * @return the row with the highest response ratio, or -1 if the tree is empty
+     */
+    int peek(int now) {
+        advance(now);
+        return winner[1];
+    }
+
+
+    /***
+     * method: remove
+     * @param row: row of a job, nothing happens if it is not in the tree
+     * @param now: current frame, never earlier than the last call
+     */
+    void remove(int row, int now) {
+        if (winner[capacity + row] < 0)
+            return;
+        advance(now);
+        winner[capacity + row] = -1;
+        size--;
+        for (int node = (capacity + row) / 2; node > 0; node /= 2)
+            play(node);
+    }
+
+
+    int size() {
+        return size;
+    }
+
+
+    private void advance(int now) {
+        time = now;
+        if (expire[1] <= time)
+            refresh(1);
+    }
+
+
+    private void refresh(int node) {
+        if (node >= capacity || expire[node] > time)
+            return;
+        refresh(2 * node);
+        refresh(2 * node + 1);
+        play(node);
+    }
+
+
+    /*
+     * same rules as ResponseRatioQueue.play, with the row as insertion order
+     */
+    private void play(int node) {
+        int left = winner[2 * node];
+        int right = winner[2 * node + 1];
+        long childExpire = Math.min(expire[2 * node], expire[2 * node + 1]);
+
+        if (left < 0 || right < 0) {
+            winner[node] = (left < 0) ? right : left;
+            expire[node] = childExpire;
+            return;
+        }
+
+        int win = higher(left, right) ? left : right;
+        int lose = (win == left) ? right : left;
+        winner[node] = win;
+        expire[node] = Math.min(childExpire, overtake(win, lose));
+    }
+
+
+    private boolean higher(int a, int b) {
+        long aDuration = store.getDuration(a);
+        long bDuration = store.getDuration(b);
+        long aRatio = (time - store.getArrivalTime(a) + aDuration) * bDuration;
+        long bRatio = (time - store.getArrivalTime(b) + bDuration) * aDuration;
+        if (aRatio != bRatio)
+            return aRatio > bRatio;
+        if (aDuration != bDuration)
+            return aDuration > bDuration;
+        return a < b;
+    }
+
+
+    private long overtake(int win, int lose) {
+        long wDuration = store.getDuration(win);
+        long lDuration = store.getDuration(lose);
+        if (wDuration <= lDuration)
+            return NEVER;
+
+        long slope = wDuration - lDuration;
+        long c = (lDuration - store.getArrivalTime(lose)) * wDuration
+                - (wDuration - store.getArrivalTime(win)) * lDuration;
+        return Math.max(time + 1, Math.floorDiv(-c, slope) + 1);
+    }
+}
@@ -2,7 +2,10 @@ package schedulers;
 
 import driver.Job;
 
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 
 
 /***
@@ -13,6 +16,8 @@ import java.util.LinkedList;
  */
 public class RoundRobinScheduler extends PreemptiveScheduler {
     private int quantum;
+    private LinkedList<Job> queue = new LinkedList<>();     // queue to hold running jobs
+    private boolean jobDone = false;                        // mark when a job is done
 
 
     public RoundRobinScheduler(LinkedList<Job> jobs, int quantum) {
@@ -21,73 +26,98 @@ public class RoundRobinScheduler extends PreemptiveScheduler {
     }
 
 
+    public RoundRobinScheduler(Iterator<Job> jobs, int quantum) {
+        super(jobs);
+        this.quantum = quantum;
+    }
+
+
     @Override
     public void run() {
-        System.out.printf("RoundRobinScheduler (with quantum = %d):", quantum);
+        out.printf("RoundRobinScheduler (with quantum = %d):", quantum);
+        super.run();
+    }
 
-        LinkedList<Job> queue = new LinkedList<>();             // queue to hold running jobs
-        boolean jobDone = false;                                // mark when a job is done
+
+    @Override
+    void reset() {
+        queue.clear();
+        jobDone = false;
 
         // sort the list of jobs by the arrival time
-        Job.setSortMode(FIRST_COME_FIRST_SERVE);
-        listOfJobs.sort(Job::compareTo);
-        frame = 0;
-
-        // run until either the original list or the queue is empty
-        while (!listOfJobs.isEmpty() || !queue.isEmpty()) {
-            Job job;
-
-            /*
-             * keep removing the head of the list (job) and add to the queue
-             * if the arrival time of the head <= the current slice time
-             * if the queue is empty or a previous job is done,
-             * then add the current job to the end of the queue
-             * otherwise, add to the second last element of the queue
-             */
-            while (!listOfJobs.isEmpty() && listOfJobs.getFirst().getArrivalTime() <= frame) {
-                job = listOfJobs.removeFirst();
-
-                if (queue.isEmpty() || jobDone) {
-                    queue.addLast(job);
-                    if (jobDone) {
-                        jobDone = false;
-                    }
-                }
-                else {
-                    queue.add(queue.size() - 1, job);
-                }
-            }
+        listOfJobs.sort(Comparator.comparingInt(Job::getArrivalTime));
+    }
 
-            // dequeue
-            job = queue.removeFirst();
-            int thisQuantum = (quantum < job.getRemainingTime()) ? quantum : job.getRemainingTime();
 
-            // run the current job one slice
-            job.runSlice(thisQuantum, 0);
+    @Override
+    void readyJobs(List<Job> jobs) {
+        jobs.addAll(queue);
+    }
 
-            // wait all other jobs one slice
-            for (Job j : queue) {
-                j.runSlice(0, thisQuantum);
-            }
-            for (Job j : listOfJobs) {
-                j.runSlice(0, thisQuantum);
-            }
 
-            // add back to the queue or to the processed list
-            if (job.getRemainingTime() > 0) {
-                queue.addLast(job);
-            }
-            else {
-                processedJobs.addLast(job);
-                jobDone = true;
-            }
+    /*
+     * keep removing the head of the list (job) and add to the queue
+     * if the arrival time of the head <= the current slice time
+     * if the queue is empty or a previous job is done,
+     * then add the current job to the end of the queue
+     * otherwise, add to the second last element of the queue
+     */
+    @Override
+    void admitArrivals() {
+        while (hasArrivals() && peekArrival().getArrivalTime() <= frame) {
+            admit(pollArrival());
+        }
+    }
+
+
+    @Override
+    boolean readyQueueEmpty() {
+        return queue.isEmpty();
+    }
 
-            // update start time
-            frame += thisQuantum;
+
+    @Override
+    void admit(Job job) {
+        if (queue.isEmpty() || jobDone) {
+            queue.addLast(job);
+            if (jobDone) {
+                jobDone = false;
+            }
         }
+        else {
+            queue.add(queue.size() - 1, job);
+        }
+    }
+
+
+    @Override
+    Job dispatch() {
+        return queue.removeFirst();
+    }
+
+
+    @Override
+    int timeSlice(Job job) {
+        return quantum;
+    }
+
+
+    @Override
+    void preempt(Job job) {
+        queue.addLast(job);
+    }
 
-        printList();
 
+    @Override
+    void complete(Job job) {
+        super.complete(job);
+        jobDone = true;
+    }
+
+
+    @Override
+    void block(Job job) {
+        jobDone = true;
     }
 
 }
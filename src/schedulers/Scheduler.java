@@ -2,6 +2,9 @@ package schedulers;
 
 import driver.Job;
 
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 
 
@@ -10,17 +13,33 @@ import java.util.LinkedList;
  * abstract class that holds common fields for all schedulers,
  * such as the list of jobs and an abstract method of how each
  * scheduler will run
+ * all simulation state belongs to the instance,
+ * so several schedulers can run at the same time
  */
 public abstract class Scheduler {
     LinkedList<Job> listOfJobs;                       // list of jobs to run
+    Iterator<Job> arrivals;                           // jobs not read yet, by arrival time
     LinkedList<Job> processedJobs;                    // list of finished jobs
-    static int frame;                                 // start time of the next job
+    int frame;                                        // start time of the next job
+    int sortMode;                                     // priority used to sort the list of jobs
+    PrintStream out;                                  // where the chart is printed
+    boolean chart;                                    // print the chart at the end of a run
+    long decisions;                                   // number of times a job was selected
+    Metrics metrics;                                  // results of the finished jobs
+    SwitchCost switchCost;                            // time lost switching to another job
+    Job lastJob;                                      // job that ran last, null before the first
+    GanttChart gantt;                                 // chart the rows are streamed to, null if none
     public static final int FIRST_COME_FIRST_SERVE = 1;
     public static final int ROUND_ROBIN = 2;
     public static final int SHORTEST_PROCESS_NEXT = 3;
     public static final int SHORTEST_REMAINING_TIME = 4;
     public static final int HIGHEST_RESPONSE_RATIO_NEXT = 5;
     public static final int FEEDBACK = 6;
+    public static final int COMPLETELY_FAIR = 7;
+    public static final int LOTTERY = 8;
+    public static final int STRIDE = 9;
+    public static final int EARLIEST_DEADLINE_FIRST = 10;
+    public static final int LEAST_LAXITY_FIRST = 11;
 
 
     /***
@@ -30,58 +49,196 @@ public abstract class Scheduler {
      */
     public Scheduler(LinkedList<Job> jobs) {
         listOfJobs = jobs;
+        arrivals = Collections.emptyIterator();
         processedJobs = new LinkedList<>();
         frame = 0;
+        sortMode = FIRST_COME_FIRST_SERVE;
+        out = System.out;
+        chart = true;
+        metrics = new Metrics();
+        switchCost = SwitchCost.NONE;
     }
 
 
-    public static int getFrame() {
+    /***
+     * constructor
+     * read the jobs one by one while the scheduler runs,
+     * instead of holding all of them in a list
+     * @param jobs: jobs sorted by arrival time
+     */
+    public Scheduler(Iterator<Job> jobs) {
+        this(new LinkedList<>());
+        arrivals = jobs;
+    }
+
+
+    public int getFrame() {
         return frame;
     }
 
+    public long getDecisions() {
+        return decisions;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public SwitchCost getSwitchCost() {
+        return switchCost;
+    }
+
+    /***
+     * method: setSwitchCost
+     * @param switchCost: time lost on every dispatch of another job than the last one, SwitchCost.NONE by default
+     */
+    public void setSwitchCost(SwitchCost switchCost) {
+        this.switchCost = switchCost;
+    }
+
+    public void setOutput(PrintStream out) {
+        this.out = out;
+    }
+
+    public void setChart(boolean chart) {
+        this.chart = chart;
+    }
+
+    /***
+     * method: setGanttChart
+     * stream the row of every job to a chart as soon as the job finishes,
+     * instead of keeping the finished jobs for the chart printed at the end of the run
+     * @param gantt: the chart of the run, null by default
+     */
+    public void setGanttChart(GanttChart gantt) {
+        this.gantt = gantt;
+    }
+
+    void setSortMode(int mode) {
+        sortMode = mode;
+    }
+
+
+    /***
+     * method: peekArrival
+     * next job to arrive, read from the arrivals when the list of jobs is empty
+     * @return the next job, or null if there is none
+     */
+    Job peekArrival() {
+        if (listOfJobs.isEmpty() && arrivals.hasNext())
+            listOfJobs.add(arrivals.next());
+        return listOfJobs.peekFirst();
+    }
+
+
+    /***
+     * method: pollArrival
+     * remove and return the next job to arrive
+     * @return the next job, or null if there is none
+     */
+    Job pollArrival() {
+        peekArrival();
+        return listOfJobs.pollFirst();
+    }
+
+
+    boolean hasArrivals() {
+        return peekArrival() != null;
+    }
+
+
+    /***
+     * method: complete
+     * record the metrics of a finished job and add it to the processed list,
+     * finished jobs are only kept when the chart is printed at the end of the run,
+     * a streamed chart gets the row of the job right away
+     * @param job: the finished job
+     */
+    void complete(Job job) {
+        job.complete();
+        metrics.record(job);
+        if (gantt != null)
+            gantt.add(job);
+        else if (chart)
+            processedJobs.addLast(job);
+    }
+
+
+    /***
+     * method: switchTo
+     * count the switch to a dispatched job, see SwitchCost
+     * @param job: the dispatched job, about to run at the frame
+     * @return time the cpu spends switching before the job runs, 0 if it ran last
+     */
+    int switchTo(Job job) {
+        if (job == lastJob)
+            return 0;
+        lastJob = job;
+        int time = switchCost.of(job.getStartTime() < 0 ? -1 : frame - job.getTimeline().getEnd());
+        metrics.recordSwitch(time);
+        return time;
+    }
+
 
     /***
      * method: printList
      * print a list of jobs,
      * one after another by name in alphabetical order
+     * with a streamed chart, only finish the chart and print the aggregates
      */
     void printList() {
-        // calculate and display time
+        if (gantt != null) {
+            gantt.finish();
+            if (chart) {
+                metrics.print(out);
+                out.println();
+            }
+            return;
+        }
+        if (!chart)
+            return;
+
+        // calculate and display time, up to the last finished job
         int totalTime = 0;
         for(Job j : processedJobs)
-            totalTime += j.getDuration();
+            totalTime = Math.max(totalTime, j.getTimeline().getEnd());
         for(int t = 0; t < totalTime; t++) {
-            System.out.print(t%10);
+            out.print(t%10);
         }
-        System.out.println();
+        out.println();
 
         // sort and display jobs by name
         processedJobs.sort((o1, o2) -> o1.getName().compareToIgnoreCase(o2.getName()));
-        processedJobs.forEach(Job::print);
-        System.out.println();
+        processedJobs.forEach(j -> j.print(out));
+        out.println();
+
+        printMetrics();
     }
 
 
     /***
-     * method: run
-     * abstract method
-     * this method gets call in polymorphism behavior
+     * method: printMetrics
+     * print the metrics of each processed job by name, then the aggregates
      */
-    public abstract void run();
+    void printMetrics() {
+        out.printf("%-8s %8s %8s %8s %10s %8s %8s %10s%n", "job", "arrival", "start", "finish",
+                "turnaround", "waiting", "response", "normalized");
+        for (Job j : processedJobs) {
+            out.printf("%-8s %8d %8d %8d %10d %8d %8d %10.2f%n", j.getName(), j.getArrivalTime(),
+                    j.getStartTime(), j.getCompletionTime(), j.getTurnaroundTime(), j.getWaitingTime(),
+                    j.getResponseTime(), Metrics.normalizedTurnaround(j.getTurnaroundTime(), j.getDuration()));
+        }
+        metrics.print(out);
+        out.println();
+    }
 
 
     /***
-     * method: next
-     * sort the list of jobs based on the priority,
-     * i.e. the compareTo method of the driver.Job class
-     * this method will be overridden by the derived classes
-     * remove and return the first job
-     * @return the next job to run
+     * method: run
+     * abstract method
+     * this method gets call in polymorphism behavior
      */
-    protected Job next() {
-        listOfJobs.sort(Job::compareTo);
-        return listOfJobs.removeFirst();
-    }
+    public abstract void run();
 
 }
 
@@ -2,6 +2,8 @@ package schedulers;
 
 import driver.Job;
 
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedList;
 
 
@@ -12,11 +14,19 @@ import java.util.LinkedList;
 public class ShortestProcessNextScheduler extends NonpreemptiveScheduler {
     public ShortestProcessNextScheduler(LinkedList<Job> jobs) {
         super(jobs);
+        priorityQueue = new JobHeap(Comparator.comparingInt(Job::getBurstTime)
+                .thenComparingInt(Job::getReadyTime));
+    }
+
+    public ShortestProcessNextScheduler(Iterator<Job> jobs) {
+        super(jobs);
+        priorityQueue = new JobHeap(Comparator.comparingInt(Job::getBurstTime)
+                .thenComparingInt(Job::getReadyTime));
     }
 
     @Override
     public void run() {
-        System.out.println("ShortestProcessNextScheduler:");
+        out.println("ShortestProcessNextScheduler:");
         super.run();
     }
 
@@ -2,8 +2,10 @@ package schedulers;
 
 import driver.Job;
 
-import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 
 
 /***
@@ -11,65 +13,78 @@ import java.util.LinkedList;
  * Choose process with shortest expected remaining time.
  * A new process arriving in the ready queue can preempt
  * the current process if its remaining time is smaller.
+ * A process with i/o bursts is ordered by the time left in its cpu burst.
  */
 public class ShortestRemainingTimeScheduler extends PreemptiveScheduler {
-    private LinkedList<Job> queue = new LinkedList<>();             // queue to hold running jobs
+    private JobHeap queue = new JobHeap(Comparator.comparingInt(Job::getBurstTime));  // queue to hold running jobs
 
 
     public ShortestRemainingTimeScheduler(LinkedList<Job> jobs) {
         super(jobs);
     }
 
+    public ShortestRemainingTimeScheduler(Iterator<Job> jobs) {
+        super(jobs);
+    }
+
 
     @Override
     public void run() {
-        System.out.println("ShortestRemainingTimeScheduler:");
-        frame = 0;
-        Job job;
-
-        // run until the list of job and the queue are both empty
-        while (!listOfJobs.isEmpty() || !queue.isEmpty()) {
-
-            /*
-             * if the front of the list has the arrival time <= to the start time,
-             * remove it from the list add it to the end of the queue
-             */
-            if (!listOfJobs.isEmpty() && listOfJobs.getFirst().getArrivalTime() <= frame) {
-                queue.add(listOfJobs.removeFirst());
-            }
-
-            job = next();
-
-            // run job
-            job.runSlice(1, 0);
-
-            // wait all other jobs
-            for (Job j : listOfJobs) {
-                j.runSlice(0, 1);
-            }
-            for (Job j : queue) {
-                j.runSlice(0, 1);
-            }
-
-            // add to the processed job or back to the queue
-            if (job.getRemainingTime() <= 0) {
-                processedJobs.add(job);
-            }
-            else {
-                queue.add(job);
-            }
-
-            frame++;
-        }
-
-        printList();
+        out.println("ShortestRemainingTimeScheduler:");
+        super.run();
+    }
+
+
+    @Override
+    void reset() {
+        queue.clear();
+
+        // sort the list of jobs by the arrival time
+        listOfJobs.sort(Comparator.comparingInt(Job::getArrivalTime));
+    }
+
+
+    @Override
+    void readyJobs(List<Job> jobs) {
+        queue.copyTo(jobs);
+    }
+
 
+    @Override
+    boolean readyQueueEmpty() {
+        return queue.isEmpty();
+    }
+
+
+    @Override
+    void admit(Job job) {
+        queue.add(job);
+    }
+
+
+    @Override
+    Job dispatch() {
+        return next();
+    }
+
+
+    /*
+     * the running job keeps the shortest remaining time until a new job arrives,
+     * so it only has to be checked again at the next admission
+     */
+    @Override
+    int timeSlice(Job job) {
+        return untilNextAdmission();
+    }
+
+
+    @Override
+    void preempt(Job job) {
+        queue.add(job);
     }
 
 
     protected Job next() {
-        Job.setSortMode(SHORTEST_REMAINING_TIME);
-        queue.sort(Job::compareTo);
-        return queue.removeFirst();
+        return queue.poll();
     }
 }
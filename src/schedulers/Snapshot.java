@@ -0,0 +1,166 @@
+package schedulers;
+
+import driver.JobStore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+
+/***
+ * class: schedulers.Snapshot
+ * binary snapshot of a run of IndexPreemptiveScheduler between two events,
+ * so a long replay can go on after its process died,
+ * or several variants of a policy can go on from the same point of a trace
+ *
+ * layout, big endian:
+ *   header      magic, version
+ *   parameters  policy, round robin quantum, feedback slices, boost period,
+ *               switch cost, cache penalty and cache decay of the run
+ *   trace       number of jobs and a hash of their arrival times and durations
+ *   state       see IndexPreemptiveScheduler.write
+ * the jobs themselves are not in the snapshot, it is read back with the same trace
+ */
+public class Snapshot {
+    public static final int MAGIC = 0x534E4150;          // "SNAP"
+    public static final int VERSION = 1;
+
+
+    /***
+     * method: save
+     * write the state of a run to a file, replacing the file only once the snapshot is complete
+     * @param scheduler: a scheduler stopped by runUntil
+     * @param fileName: name of the snapshot file
+     */
+    public static void save(IndexPreemptiveScheduler scheduler, String fileName) throws IOException {
+        Path path = Paths.get(fileName).toAbsolutePath();
+        Path partial = path.resolveSibling(path.getFileName() + ".partial");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(partial.toFile()), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            int[] quanta = scheduler.getQuanta();
+            out.writeInt(scheduler.policy);
+            out.writeInt(scheduler.getQuantum());
+            out.writeInt(quanta.length);
+            for (int quantum : quanta)
+                out.writeInt(quantum);
+            out.writeInt(scheduler.getBoostPeriod());
+            out.writeInt(scheduler.switchCost.getCost());
+            out.writeInt(scheduler.switchCost.getPenalty());
+            out.writeInt(scheduler.switchCost.getDecay());
+
+            out.writeInt(scheduler.store.size());
+            out.writeLong(hash(scheduler.store));
+            scheduler.write(out);
+        }
+        Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+
+    /***
+     * method: resume
+     * create a scheduler with the parameters of a snapshot and bring it back to the saved state,
+     * its runUntil and run then make the same decisions as the saved run would have
+     * @param store: jobs of the trace the snapshot was taken on
+     * @param fileName: name of the snapshot file
+     * @return the scheduler
+     */
+    public static IndexPreemptiveScheduler resume(JobStore store, String fileName) throws IOException {
+        try (DataInputStream in = open(fileName)) {
+            int policy = in.readInt();
+            int quantum = in.readInt();
+            int[] quanta = new int[in.readInt()];
+            if (quanta.length < 1 || quanta.length > FeedbackScheduler.MAX_LEVELS)
+                throw new IOException(fileName + ": corrupt snapshot");
+            for (int level = 0; level < quanta.length; level++)
+                quanta[level] = in.readInt();
+            int boostPeriod = in.readInt();
+            SwitchCost switchCost = new SwitchCost(in.readInt(), in.readInt(), in.readInt());
+
+            IndexPreemptiveScheduler scheduler = policy == Scheduler.FEEDBACK
+                    ? new IndexPreemptiveScheduler(store, quanta, boostPeriod)
+                    : new IndexPreemptiveScheduler(store, policy, quantum);
+            scheduler.setSwitchCost(switchCost);
+            readState(scheduler, in, fileName);
+            return scheduler;
+        }
+        catch (IllegalArgumentException e) {
+            throw new IOException(fileName + ": corrupt snapshot, " + e.getMessage());
+        }
+    }
+
+
+    /***
+     * method: restore
+     * bring a scheduler of the same policy to the state of a snapshot,
+     * keeping its own parameters from then on, to fork variants of a policy from a common point
+     * @param scheduler: a scheduler of the policy of the snapshot, over the jobs of its trace
+     * @param fileName: name of the snapshot file
+     */
+    public static void restore(IndexPreemptiveScheduler scheduler, String fileName) throws IOException {
+        try (DataInputStream in = open(fileName)) {
+            int policy = in.readInt();
+            if (policy != scheduler.policy)
+                throw new IllegalArgumentException(fileName + ": snapshot of policy " + policy +
+                        ", not of policy " + scheduler.policy);
+            in.readInt();
+            int levels = in.readInt();
+            if (levels < 1 || levels > FeedbackScheduler.MAX_LEVELS)
+                throw new IOException(fileName + ": corrupt snapshot");
+            // slices, boost period and switch cost of the saved run
+            for (int i = 0; i < levels + 4; i++)
+                in.readInt();
+            readState(scheduler, in, fileName);
+        }
+    }
+
+
+    private static DataInputStream open(String fileName) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName), 1 << 16));
+        try {
+            if (in.readInt() != MAGIC)
+                throw new IOException(fileName + ": not a snapshot");
+            int version = in.readInt();
+            if (version != VERSION)
+                throw new IOException(fileName + ": unsupported snapshot version " + version);
+            return in;
+        }
+        catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+
+    private static void readState(IndexPreemptiveScheduler scheduler, DataInputStream in, String fileName)
+            throws IOException {
+        if (in.readInt() != scheduler.store.size() || in.readLong() != hash(scheduler.store))
+            throw new IOException(fileName + ": snapshot of another trace");
+        scheduler.read(in);
+        if (in.read() >= 0)
+            throw new IOException(fileName + ": corrupt snapshot, bytes after the state");
+    }
+
+
+    /*
+     * arrival times and durations of every job, in store order
+     */
+    private static long hash(JobStore store) {
+        long hash = store.size();
+        for (int job = 0; job < store.size(); job++) {
+            hash = hash * 31 + store.getArrivalTime(job);
+            hash = hash * 31 + store.getDuration(job);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,166 @@
+package schedulers;
+
+import driver.Job;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+
+/***
+ * class: schedulers.StrideScheduler
+ * Deterministic proportional share scheduling.
+ * Each job has a stride, inversely proportional to its tickets, and a pass.
+ * Every quantum the job with the smallest pass runs and its pass moves forward by its stride,
+ * so each job gets a share of the cpu proportional to its tickets, without the variance of a lottery.
+ * The passes are kept in a heap, so each decision costs O(log n).
+ *
+ * The global pass is the pass of the last dispatched job, the smallest one,
+ * a new job starts one stride after it, so it neither waits for nor overtakes the others.
+ */
+public class StrideScheduler extends PreemptiveScheduler {
+    private static final long STRIDE1 = 1L << 30;        // pass of one quantum with one ticket
+
+    private final int quantum;
+    private final PriorityQueue<Entity> heap = new PriorityQueue<>(
+            Comparator.comparingLong((Entity e) -> e.pass).thenComparingLong(e -> e.order));
+    private Entity current;                              // running job, out of the heap
+    private int remaining;                               // remaining time of the running job when dispatched
+    private long globalPass;                             // pass of the last dispatched job, never decreases
+    private long admitted;                               // jobs admitted, breaks ties in the heap
+
+
+    /***
+     * class: Entity
+     * a runnable job with its stride and pass
+     */
+    private static class Entity {
+        final Job job;
+        final long stride;                               // STRIDE1 / tickets
+        final long order;                                // order of admission
+        long pass;                                       // virtual time of the next quantum of the job
+
+        Entity(Job job, long order) {
+            this.job = job;
+            this.stride = STRIDE1 / job.getTickets();
+            this.order = order;
+        }
+    }
+
+
+    public StrideScheduler(LinkedList<Job> jobs, int quantum) {
+        super(jobs);
+        checkQuantum(quantum);
+        this.quantum = quantum;
+    }
+
+    public StrideScheduler(Iterator<Job> jobs, int quantum) {
+        super(jobs);
+        checkQuantum(quantum);
+        this.quantum = quantum;
+    }
+
+
+    /*
+     * the pass of a job advances by its stride per quantum run, see account
+     */
+    private static void checkQuantum(int quantum) {
+        if (quantum < 1)
+            throw new IllegalArgumentException("the quantum must be positive: " + quantum);
+    }
+
+
+    @Override
+    public void run() {
+        out.printf("StrideScheduler (with quantum = %d):", quantum);
+        super.run();
+    }
+
+
+    @Override
+    void reset() {
+        heap.clear();
+        current = null;
+        globalPass = 0;
+        admitted = 0;
+
+        // sort the list of jobs by the arrival time
+        listOfJobs.sort(Comparator.comparingInt(Job::getArrivalTime));
+    }
+
+
+    @Override
+    void readyJobs(List<Job> jobs) {
+        List<Entity> entities = new ArrayList<>(heap);
+        entities.sort(heap.comparator());
+        for (Entity entity : entities)
+            jobs.add(entity.job);
+    }
+
+
+    @Override
+    boolean readyQueueEmpty() {
+        return heap.isEmpty();
+    }
+
+
+    @Override
+    void admit(Job job) {
+        Entity entity = new Entity(job, admitted++);
+        entity.pass = globalPass + entity.stride;
+        heap.add(entity);
+    }
+
+
+    @Override
+    Job dispatch() {
+        current = heap.poll();
+        remaining = current.job.getRemainingTime();
+        globalPass = Math.max(globalPass, current.pass);
+        return current.job;
+    }
+
+
+    @Override
+    int timeSlice(Job job) {
+        return quantum;
+    }
+
+
+    @Override
+    void preempt(Job job) {
+        account(quantum);
+        heap.add(current);
+        current = null;
+    }
+
+
+    @Override
+    void complete(Job job) {
+        account(remaining);
+        current = null;
+        super.complete(job);
+    }
+
+
+    @Override
+    void block(Job job) {
+        account(remaining - job.getRemainingTime());
+        current = null;
+    }
+
+
+    /***
+     * method: account
+     * move the pass of the running job forward,
+     * by a part of its stride when the job finished before the end of its quantum
+     * @param time: time the job ran
+     */
+    private void account(int time) {
+        current.pass += current.stride * time / quantum;
+    }
+
+}
@@ -0,0 +1,72 @@
+package schedulers;
+
+
+/***
+ * class: schedulers.SwitchCost
+ * time a cpu loses when it dispatches another job than the one it ran last:
+ * a fixed cost to save and restore the state of the jobs,
+ * plus a cache penalty growing with the time since the dispatched job last ran on the cpu,
+ * from nothing right after it stopped to the whole penalty once the decay time has passed,
+ * a job that never ran on the cpu pays the whole penalty
+ */
+public class SwitchCost {
+    public static final SwitchCost NONE = new SwitchCost(0);
+    public static final int DEFAULT_DECAY = 20;
+
+    private final int cost;                           // time to switch the state of the cpu
+    private final int penalty;                        // extra time of a job with a cold cache
+    private final int decay;                          // time after which a stopped job has a cold cache
+
+
+    public SwitchCost(int cost) {
+        this(cost, 0, DEFAULT_DECAY);
+    }
+
+    /***
+     * constructor
+     * @param cost: time to switch the state of the cpu, 0 or more
+     * @param penalty: extra time of a job with a cold cache, 0 or more
+     * @param decay: time after which a stopped job has a cold cache, positive
+     */
+    public SwitchCost(int cost, int penalty, int decay) {
+        if (cost < 0 || penalty < 0 || decay < 1)
+            throw new IllegalArgumentException("switch costs must not be negative and the decay must be positive: " +
+                    cost + ", " + penalty + ", " + decay);
+        this.cost = cost;
+        this.penalty = penalty;
+        this.decay = decay;
+    }
+
+
+    public int getCost() {
+        return cost;
+    }
+
+    public int getPenalty() {
+        return penalty;
+    }
+
+    public int getDecay() {
+        return decay;
+    }
+
+    /***
+     * method: hasPenalty
+     * @return true if the time since a job last ran matters
+     */
+    public boolean hasPenalty() {
+        return penalty > 0;
+    }
+
+
+    /***
+     * method: of
+     * @param idle: time since the dispatched job last ran on the cpu, -1 if it never did
+     * @return time the cpu spends switching to the job, rounded up
+     */
+    int of(int idle) {
+        if (idle < 0 || idle >= decay)
+            return cost + penalty;
+        return cost + (int) (((long) penalty * idle + decay - 1) / decay);
+    }
+}
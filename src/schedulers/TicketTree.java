@@ -0,0 +1,112 @@
+package schedulers;
+
+import java.util.Arrays;
+
+
+/***
+ * class: schedulers.TicketTree
+ * Fenwick tree of the tickets of the runnable jobs of a lottery,
+ * each job holds a slot and slots of finished jobs are reused,
+ * so adding, removing and drawing a job cost O(log n)
+ */
+class TicketTree {
+    private long[] tree;                                // tree[i]: tickets of the slots (i - (i & -i), i]
+    private int[] tickets;                              // tickets of each slot, 0 if free
+    private int[] free;                                 // free slots below used
+    private int freeCount;                              // number of free slots
+    private int used;                                   // slots ever handed out
+    private int size;                                   // number of jobs in the tree
+    private long total;                                 // tickets of every job
+
+
+    TicketTree() {
+        tree = new long[17];
+        tickets = new int[16];
+        free = new int[16];
+    }
+
+
+    int size() {
+        return size;
+    }
+
+    long getTotal() {
+        return total;
+    }
+
+
+    /***
+     * method: add
+     * @param count: tickets of the job, positive
+     * @return slot of the job
+     */
+    int add(int count) {
+        int slot;
+        if (freeCount > 0) {
+            slot = free[--freeCount];
+        }
+        else {
+            if (used == tickets.length)
+                grow();
+            slot = used++;
+        }
+        tickets[slot] = count;
+        update(slot, count);
+        size++;
+        return slot;
+    }
+
+
+    /***
+     * method: remove
+     * @param slot: slot of a job in the tree
+     */
+    void remove(int slot) {
+        update(slot, -tickets[slot]);
+        tickets[slot] = 0;
+        free[freeCount++] = slot;
+        size--;
+    }
+
+
+    /***
+     * method: find
+     * descend the tree from the largest power of 2 to find the slot holding a ticket
+     * @param ticket: a ticket from 0 to the total, excluded
+     * @return slot whose tickets hold the ticket
+     */
+    int find(long ticket) {
+        int position = 0;
+        for (int step = Integer.highestOneBit(tickets.length); step > 0; step >>= 1) {
+            if (position + step < tree.length && tree[position + step] <= ticket) {
+                position += step;
+                ticket -= tree[position];
+            }
+        }
+        return position;
+    }
+
+
+    private void update(int slot, long delta) {
+        total += delta;
+        for (int i = slot + 1; i < tree.length; i += i & -i)
+            tree[i] += delta;
+    }
+
+
+    /*
+     * double the slots and build the tree again in O(n)
+     */
+    private void grow() {
+        int capacity = tickets.length * 2;
+        tickets = Arrays.copyOf(tickets, capacity);
+        free = Arrays.copyOf(free, capacity);
+        tree = new long[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            tree[i] += tickets[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= capacity)
+                tree[parent] += tree[i];
+        }
+    }
+}